@@ -0,0 +1,52 @@
+package com.github.watermoonlx.simpleRule.benchmarks;
+
+import com.github.watermoonlx.simpleRule.core.ParallelRuleSet;
+import com.github.watermoonlx.simpleRule.core.Rule;
+import com.github.watermoonlx.simpleRule.core.RuleCheckResult;
+import com.github.watermoonlx.simpleRule.core.SerialRuleSet;
+
+/**
+ * 基准测试使用的规则及规则树
+ */
+final class BenchmarkRules {
+
+    private BenchmarkRules() {
+    }
+
+    /**
+     * 与AmountMustLessThan1000类似的廉价阈值规则
+     */
+    @Rule.Descriptor("金额必须小于阈值")
+    static class AmountMustLessThan extends Rule<Integer> {
+        private final int threshold;
+
+        AmountMustLessThan(int threshold) {
+            this.threshold = threshold;
+            this.setName("AmountMustLessThan" + threshold);
+        }
+
+        @Override
+        public RuleCheckResult check(Integer target) {
+            if (target < this.threshold) {
+                return this.pass();
+            } else {
+                return this.error("金额超过阈值");
+            }
+        }
+    }
+
+    /**
+     * 构建宽度为width、深度为depth的规则树。depth为1时，规则集直接包含width个叶子规则；
+     * 否则各层规则集交替使用串行与并行（从parallel指定的类型开始），每层包含width个子节点。
+     */
+    @SuppressWarnings("unchecked")
+    static Rule<Integer> tree(boolean parallel, ParallelRuleSet.Operator operator, int width, int depth, int threshold) {
+        Rule<Integer>[] children = new Rule[width];
+        for (int i = 0; i < width; i++) {
+            children[i] = depth <= 1
+                    ? new AmountMustLessThan(threshold + i)
+                    : tree(!parallel, operator, width, depth - 1, threshold);
+        }
+        return parallel ? new ParallelRuleSet<>(operator, children) : new SerialRuleSet<>(operator, children);
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.watermoonlx.simpleRule.benchmarks;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 运行所有基准测试，同时报告吞吐量和内存分配速率（GC Profiler）。
+ * 用法：java -jar simple-rule-benchmarks/target/benchmarks.jar [基准测试名称的正则表达式]
+ * 也可以直接使用JMH自带的命令行：java -cp benchmarks.jar org.openjdk.jmh.Main -prof gc ...
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.MILLISECONDS)
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .addProfiler(GCProfiler.class);
+        if (args.length == 0) {
+            builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+        }
+        for (String arg : args) {
+            builder.include(arg);
+        }
+        new Runner(builder.build()).run();
+    }
+}
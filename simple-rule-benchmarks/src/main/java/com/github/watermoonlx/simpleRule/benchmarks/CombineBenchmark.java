@@ -0,0 +1,53 @@
+package com.github.watermoonlx.simpleRule.benchmarks;
+
+import com.github.watermoonlx.simpleRule.core.RuleCheckResult;
+import com.github.watermoonlx.simpleRule.core.RuleCheckResultDetail;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 逐个合并大量子规则结果的开销，与规则集执行时的合并方式相同
+ */
+@State(Scope.Benchmark)
+public class CombineBenchmark {
+
+    @Param({"10", "200", "1000"})
+    public int size;
+
+    private RuleCheckResult[] results;
+
+    @Setup
+    public void setUp() {
+        this.results = new RuleCheckResult[this.size];
+        for (int i = 0; i < this.size; i++) {
+            RuleCheckResult result = new RuleCheckResult();
+            RuleCheckResultDetail detail = new RuleCheckResultDetail("Rule" + i, "结果" + i);
+            if (i % 10 == 0) {
+                result.addWarning(detail);
+            } else {
+                result.addPassed(detail);
+            }
+            this.results[i] = result;
+        }
+    }
+
+    @Benchmark
+    public RuleCheckResult combine() {
+        RuleCheckResult combined = new RuleCheckResult();
+        for (RuleCheckResult result : this.results) {
+            combined = combined.combine(result);
+        }
+        return combined;
+    }
+
+    @Benchmark
+    public void combineAndRead(Blackhole blackhole) {
+        RuleCheckResult combined = this.combine();
+        blackhole.consume(combined.getPasseds());
+        blackhole.consume(combined.hasWarning("Rule" + (this.size / 2 / 10 * 10)));
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.watermoonlx.simpleRule.benchmarks;
+
+import com.github.watermoonlx.simpleRule.core.ParallelRuleSet;
+import com.github.watermoonlx.simpleRule.core.Rule;
+import com.github.watermoonlx.simpleRule.core.RuleCheckResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * 导出流程图（含和不含执行结果）的开销
+ */
+@State(Scope.Benchmark)
+public class ImageGeneratorBenchmark {
+
+    @Param({"4", "16"})
+    public int width;
+
+    private Rule<Integer> rule;
+    private RuleCheckResult result;
+
+    @Setup
+    public void setUp() {
+        this.rule = BenchmarkRules.tree(false, ParallelRuleSet.Operator.AND, this.width, 2, 1000);
+        this.result = this.rule.check(500);
+    }
+
+    @Benchmark
+    public byte[] drawImage() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        this.rule.drawImage(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] drawImageWithResult() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        this.rule.drawImageWithResult(this.result, outputStream);
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.watermoonlx.simpleRule.benchmarks;
+
+import com.github.watermoonlx.simpleRule.core.Rule;
+import com.github.watermoonlx.simpleRule.core.RuleCheckResult;
+import com.github.watermoonlx.simpleRule.core.RuleEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 单个叶子规则的检查开销：直接调用check()与经由引擎执行的对比
+ */
+@State(Scope.Benchmark)
+public class LeafRuleBenchmark {
+
+    private Rule<Integer> rule;
+    private RuleEngine asyncEngine;
+    private RuleEngine inlineEngine;
+    private Integer passTarget;
+    private Integer errorTarget;
+
+    @Setup
+    public void setUp() {
+        this.rule = new BenchmarkRules.AmountMustLessThan(1000);
+        this.asyncEngine = new RuleEngine();
+        this.inlineEngine = RuleEngine.inline();
+        this.passTarget = 500;
+        this.errorTarget = 1500;
+    }
+
+    @Benchmark
+    public RuleCheckResult checkPass() {
+        return this.rule.check(this.passTarget);
+    }
+
+    @Benchmark
+    public RuleCheckResult checkError() {
+        return this.rule.check(this.errorTarget);
+    }
+
+    @Benchmark
+    public RuleCheckResult asyncEngine() {
+        return this.asyncEngine.run(this.rule, this.passTarget);
+    }
+
+    @Benchmark
+    public RuleCheckResult inlineEngine() {
+        return this.inlineEngine.run(this.rule, this.passTarget);
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.watermoonlx.simpleRule.benchmarks;
+
+import com.github.watermoonlx.simpleRule.core.CompiledRule;
+import com.github.watermoonlx.simpleRule.core.ParallelRuleSet;
+import com.github.watermoonlx.simpleRule.core.Rule;
+import com.github.watermoonlx.simpleRule.core.RuleCheckResult;
+import com.github.watermoonlx.simpleRule.core.RuleEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 不同宽度和深度的串行、并行规则集，在各执行方式下全部通过时的开销
+ */
+@State(Scope.Benchmark)
+public class RuleSetBenchmark {
+
+    @Param({"serial", "parallel"})
+    public String type;
+
+    @Param({"4", "16", "64"})
+    public int width;
+
+    @Param({"1", "2"})
+    public int depth;
+
+    private Rule<Integer> rule;
+    private RuleEngine asyncEngine;
+    private RuleEngine inlineEngine;
+    private CompiledRule<Integer> compiled;
+    private Integer target;
+
+    @Setup
+    public void setUp() {
+        this.rule = BenchmarkRules.tree("parallel".equals(this.type), ParallelRuleSet.Operator.AND, this.width, this.depth, 1000);
+        this.asyncEngine = new RuleEngine();
+        this.inlineEngine = RuleEngine.inline();
+        this.compiled = this.inlineEngine.compile(this.rule);
+        this.target = 500;
+    }
+
+    @Benchmark
+    public RuleCheckResult asyncEngine() {
+        return this.asyncEngine.run(this.rule, this.target);
+    }
+
+    @Benchmark
+    public RuleCheckResult inlineEngine() {
+        return this.inlineEngine.run(this.rule, this.target);
+    }
+
+    @Benchmark
+    public RuleCheckResult compiled() {
+        return this.compiled.check(this.target);
+    }
+}
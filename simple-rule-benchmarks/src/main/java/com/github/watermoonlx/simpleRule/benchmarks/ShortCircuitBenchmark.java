@@ -0,0 +1,68 @@
+package com.github.watermoonlx.simpleRule.benchmarks;
+
+import com.github.watermoonlx.simpleRule.core.ParallelRuleSet;
+import com.github.watermoonlx.simpleRule.core.Rule;
+import com.github.watermoonlx.simpleRule.core.RuleCheckResult;
+import com.github.watermoonlx.simpleRule.core.RuleEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * AND和OR规则集在第一个子规则即可决定结果时的短路开销
+ */
+@State(Scope.Benchmark)
+public class ShortCircuitBenchmark {
+
+    @Param({"16", "64"})
+    public int width;
+
+    private Rule<Integer> serialAnd;
+    private Rule<Integer> serialOr;
+    private Rule<Integer> parallelOr;
+    private Rule<Integer> parallelAndFailFast;
+    private RuleEngine asyncEngine;
+    private RuleEngine inlineEngine;
+    private Integer target;
+
+    @Setup
+    public void setUp() {
+        // 阈值从1000起递增，目标1000使第一个子规则不通过、其余全部通过
+        this.serialAnd = BenchmarkRules.tree(false, ParallelRuleSet.Operator.AND, this.width, 1, 1000);
+        this.parallelAndFailFast = BenchmarkRules.tree(true, ParallelRuleSet.Operator.AND, this.width, 1, 1000);
+        ((ParallelRuleSet<Integer>) this.parallelAndFailFast).setFailFast(true);
+        // 阈值从1001起递增，目标1000使第一个子规则即通过
+        this.serialOr = BenchmarkRules.tree(false, ParallelRuleSet.Operator.OR, this.width, 1, 1001);
+        this.parallelOr = BenchmarkRules.tree(true, ParallelRuleSet.Operator.OR, this.width, 1, 1001);
+        this.asyncEngine = new RuleEngine();
+        this.inlineEngine = RuleEngine.inline();
+        this.target = 1000;
+    }
+
+    @Benchmark
+    public RuleCheckResult serialAndInline() {
+        return this.inlineEngine.run(this.serialAnd, this.target);
+    }
+
+    @Benchmark
+    public RuleCheckResult serialOrInline() {
+        return this.inlineEngine.run(this.serialOr, this.target);
+    }
+
+    @Benchmark
+    public RuleCheckResult serialAndAsync() {
+        return this.asyncEngine.run(this.serialAnd, this.target);
+    }
+
+    @Benchmark
+    public RuleCheckResult parallelOrAsync() {
+        return this.asyncEngine.run(this.parallelOr, this.target);
+    }
+
+    @Benchmark
+    public RuleCheckResult parallelAndFailFastAsync() {
+        return this.asyncEngine.run(this.parallelAndFailFast, this.target);
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * 串行规则集的自适应执行顺序。
+ * 记录每个子规则的平均耗时，以及其“决定结果”的比例（AND运算符下为产生错误，OR运算符下为通过），
+ * 每执行interval次规则集，按“平均耗时 / 决定结果的概率”从小到大重新排列子规则，使廉价且大概率短路的子规则先执行。
+ * 被固定的子规则是排序的屏障：它们保持原位置，其余子规则只在相邻两个固定子规则之间重新排列。
+ * <p>
+ * 该类是线程安全的：统计使用LongAdder，执行顺序以不可变数组发布，执行时只读取一次。
+ */
+final class AdaptiveOrder {
+
+    private final boolean and;
+    private final boolean[] pinned;
+    private final int interval;
+    private final LongAdder[] counts;
+    private final LongAdder[] nanos;
+    private final LongAdder[] decisives;
+    private final AtomicLong evaluations = new AtomicLong();
+    private volatile int[] order;
+
+    AdaptiveOrder(RuleSet.Operator operator, boolean[] pinned, int interval) {
+        this.and = operator == RuleSet.Operator.AND;
+        this.pinned = pinned;
+        this.interval = Math.max(1, interval);
+        this.counts = newAdders(pinned.length);
+        this.nanos = newAdders(pinned.length);
+        this.decisives = newAdders(pinned.length);
+        int[] order = new int[pinned.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        this.order = order;
+    }
+
+    int size() {
+        return this.pinned.length;
+    }
+
+    /**
+     * 当前的执行顺序，元素为子规则在注册顺序中的下标。返回的数组不可修改
+     */
+    int[] order() {
+        return this.order;
+    }
+
+    /**
+     * 按当前顺序依次执行各子规则，并记录统计信息。执行语义与普通的串行规则集相同
+     *
+     * @param child 根据子规则的下标执行该子规则
+     */
+    RuleCheckResult evaluate(IntFunction<RuleCheckResult> child) {
+        RuleCheckResult result = this.evaluateInOrder(child);
+        this.completed();
+        return result;
+    }
+
+    private RuleCheckResult evaluateInOrder(IntFunction<RuleCheckResult> child) {
+        RuleCheckResult combinedResult = new RuleCheckResult();
+        for (int index : this.order) {
+            long start = System.nanoTime();
+            RuleCheckResult result = child.apply(index);
+            this.record(index, System.nanoTime() - start, result);
+            combinedResult = combinedResult.combine(result);
+            if (this.and) {
+                if (result.hasError()) {
+                    return combinedResult;
+                }
+            } else {
+                if (!result.hasError()) {
+                    return result;
+                }
+            }
+        }
+        return combinedResult;
+    }
+
+    void record(int index, long durationNanos, RuleCheckResult result) {
+        this.counts[index].increment();
+        this.nanos[index].add(durationNanos);
+        if (result.hasError() == this.and) {
+            this.decisives[index].increment();
+        }
+    }
+
+    /**
+     * 规则集正常完成一次执行。每完成interval次，重新计算执行顺序
+     */
+    void completed() {
+        if (this.evaluations.incrementAndGet() % this.interval == 0) {
+            this.reorder();
+        }
+    }
+
+    private synchronized void reorder() {
+        int size = this.pinned.length;
+        double[] scores = new double[size];
+        for (int i = 0; i < size; i++) {
+            long count = this.counts[i].sum();
+            if (count == 0) {
+                // 尚未执行过的子规则排在最前面，以便获得统计信息
+                scores[i] = 0;
+                continue;
+            }
+            double meanNanos = (double) this.nanos[i].sum() / count;
+            // 拉普拉斯平滑，避免从未决定结果的子规则得分为无穷大
+            double probability = (this.decisives[i].sum() + 1.0) / (count + 2.0);
+            scores[i] = meanNanos / probability;
+        }
+        int[] newOrder = new int[size];
+        List<Integer> segment = new ArrayList<>();
+        Comparator<Integer> byScore = Comparator.comparingDouble(i -> scores[i]);
+        int position = 0;
+        for (int i = 0; i <= size; i++) {
+            if (i == size || this.pinned[i]) {
+                segment.sort(byScore);
+                for (int index : segment) {
+                    newOrder[position++] = index;
+                }
+                segment.clear();
+                if (i < size) {
+                    newOrder[position++] = i;
+                }
+            } else {
+                segment.add(i);
+            }
+        }
+        this.order = newOrder;
+    }
+
+    private static LongAdder[] newAdders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
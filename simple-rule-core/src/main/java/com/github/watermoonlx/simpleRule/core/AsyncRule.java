@@ -0,0 +1,26 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步规则，适用于调用异步客户端的I/O型检查。
+ * 子类实现checkAsync()，返回规则自己的Future。由RuleEngine以异步模式执行时，引擎直接将该Future组合进串行和并行规则集，
+ * 等待期间不占用线程池中的线程，因此少量线程即可同时执行大量远程检查。
+ * <p>
+ * 返回的Future在哪个线程上完成，后续的组合工作（串行规则集启动下一个子规则、并行规则集汇总结果等）就在哪个线程上进行，这些工作都很轻量。
+ * 所在的规则集提前完成或超时时，引擎会取消返回的Future，因此不应让多次检查共享同一个未完成的Future。
+ * 同步执行的路径（内联模式的引擎、CompiledRule、直接调用check()）将阻塞等待该Future。
+ */
+public abstract class AsyncRule<T> extends Rule<T> {
+
+    /**
+     * 异步执行检查，返回的Future不能为null
+     */
+    @Override
+    public abstract CompletableFuture<RuleCheckResult> checkAsync(T target);
+
+    @Override
+    public RuleCheckResult check(T target) {
+        return this.checkAsync(target).join();
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import java.util.List;
+
+/**
+ * 支持批量检查的规则。需要查询参考数据（如客户状态、黑名单）的规则可以实现该接口，一次查询即可检查多个目标。
+ * 该接口由Rule的子类实现；RuleEngine.runBatch()检查多个目标时，对每个分块只调用一次checkAll()，
+ * 而串行、并行规则集的语义（短路、快速失败）仍然按目标分别生效，因此每次传入的只是仍需执行该规则的目标。
+ * 其他执行方式仍然逐个调用check()。
+ * <pre>
+ * public class BuyerNotBlockedRule extends Rule&lt;Order&gt; implements BatchRule&lt;Order&gt; {
+ *     public RuleCheckResult check(Order order) {
+ *         return this.checkAll(Collections.singletonList(order)).get(0);
+ *     }
+ *
+ *     public List&lt;RuleCheckResult&gt; checkAll(List&lt;Order&gt; orders) {
+ *         Set&lt;String&gt; blocked = blocklist.findAll(buyerIdsOf(orders));
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * @param <T> 待检测的目标类型
+ */
+public interface BatchRule<T> {
+
+    /**
+     * 批量检查多个目标
+     *
+     * @param targets 待检查的目标，不为空
+     * @return 各目标的检查结果，顺序和数量必须与targets相同
+     */
+    List<RuleCheckResult> checkAll(List<T> targets);
+}
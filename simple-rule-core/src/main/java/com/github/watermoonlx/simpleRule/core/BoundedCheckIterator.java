@@ -0,0 +1,72 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 按输入顺序逐个产出检查结果的迭代器。
+ * 仅在被消费时才从源迭代器读取目标，同时提交到线程池执行的检查不超过maxInFlight个，因此内存占用与输入规模无关。
+ */
+class BoundedCheckIterator<T> implements Iterator<TargetCheckResult<T>> {
+
+    private final CompiledRule<T> rule;
+    private final Iterator<? extends T> source;
+    private final int maxInFlight;
+    private final Executor pool;
+    private final ArrayDeque<InFlight<T>> inFlights;
+
+    BoundedCheckIterator(CompiledRule<T> rule, Iterator<? extends T> source, int maxInFlight, Executor pool) {
+        this.rule = rule;
+        this.source = source;
+        this.maxInFlight = maxInFlight;
+        this.pool = pool;
+        this.inFlights = new ArrayDeque<>(maxInFlight);
+    }
+
+    @Override
+    public boolean hasNext() {
+        this.fill();
+        return !this.inFlights.isEmpty();
+    }
+
+    @Override
+    public TargetCheckResult<T> next() {
+        this.fill();
+        InFlight<T> head = this.inFlights.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        return new TargetCheckResult<>(head.target, head.future.join());
+    }
+
+    /**
+     * 取消所有尚未完成的检查
+     */
+    void cancel() {
+        InFlight<T> inFlight;
+        while ((inFlight = this.inFlights.poll()) != null) {
+            inFlight.future.cancel(false);
+        }
+    }
+
+    private void fill() {
+        while (this.inFlights.size() < this.maxInFlight && this.source.hasNext()) {
+            T target = this.source.next();
+            CompletableFuture<RuleCheckResult> future = CompletableFuture.supplyAsync(() -> this.rule.checkSequential(target), this.pool);
+            this.inFlights.add(new InFlight<>(target, future));
+        }
+    }
+
+    private static class InFlight<T> {
+        private final T target;
+        private final CompletableFuture<RuleCheckResult> future;
+
+        private InFlight(T target, CompletableFuture<RuleCheckResult> future) {
+            this.target = target;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 某一类规则专用的执行器（舱壁）。通过RuleEngine.registerExecutor()注册后，
+ * 属于该类别的规则只在该执行器上执行，慢速的I/O型规则占满自己的执行器时，不会拖慢共享线程池中的其他规则。
+ * <p>
+ * 该类包装实际执行任务的Executor，并统计排队深度、执行中的任务数等指标，统计使用原子计数，不会引入锁竞争。
+ */
+public final class Bulkhead implements Executor {
+
+    /**
+     * 类别名称
+     */
+    @Getter
+    private final String name;
+    private final Executor delegate;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    Bulkhead(String name, Executor delegate) {
+        this.name = name;
+        this.delegate = delegate;
+    }
+
+    /**
+     * 创建一个固定线程数的执行器，使用守护线程，空闲的线程会在一分钟后退出
+     */
+    static Executor newFixedThreadPool(String name, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads必须大于0");
+        }
+        AtomicInteger index = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "simple-rule-" + name + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        this.submittedCount.increment();
+        int depth = this.queueDepth.incrementAndGet();
+        this.updatePeak(depth);
+        try {
+            this.delegate.execute(() -> {
+                this.queueDepth.decrementAndGet();
+                this.activeCount.incrementAndGet();
+                try {
+                    command.run();
+                } finally {
+                    this.activeCount.decrementAndGet();
+                    this.completedCount.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.queueDepth.decrementAndGet();
+            this.rejectedCount.increment();
+            throw e;
+        }
+    }
+
+    private void updatePeak(int depth) {
+        int peak = this.peakQueueDepth.get();
+        while (depth > peak && !this.peakQueueDepth.compareAndSet(peak, depth)) {
+            peak = this.peakQueueDepth.get();
+        }
+    }
+
+    /**
+     * 当前排队等待执行的任务数
+     */
+    public int getQueueDepth() {
+        return this.queueDepth.get();
+    }
+
+    /**
+     * 当前正在执行的任务数
+     */
+    public int getActiveCount() {
+        return this.activeCount.get();
+    }
+
+    public BulkheadStats getStats() {
+        return new BulkheadStats(
+                this.queueDepth.get(),
+                this.peakQueueDepth.get(),
+                this.activeCount.get(),
+                this.submittedCount.sum(),
+                this.completedCount.sum(),
+                this.rejectedCount.sum()
+        );
+    }
+
+    /**
+     * 重置排队深度的峰值，以便按时间窗口采集
+     */
+    public void resetPeakQueueDepth() {
+        this.peakQueueDepth.set(this.queueDepth.get());
+    }
+}
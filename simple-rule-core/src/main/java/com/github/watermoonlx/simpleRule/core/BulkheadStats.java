@@ -0,0 +1,38 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 规则执行器（舱壁）的统计信息快照
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BulkheadStats {
+    /**
+     * 排队等待执行的任务数
+     */
+    private final int queueDepth;
+    /**
+     * 排队深度的峰值
+     */
+    private final int peakQueueDepth;
+    /**
+     * 正在执行的任务数
+     */
+    private final int activeCount;
+    /**
+     * 已提交的任务数
+     */
+    private final long submittedCount;
+    /**
+     * 已执行完毕的任务数
+     */
+    private final long completedCount;
+    /**
+     * 被执行器拒绝的任务数
+     */
+    private final long rejectedCount;
+}
@@ -0,0 +1,38 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 结果缓存的统计信息快照
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CacheStats {
+    /**
+     * 命中次数
+     */
+    private final long hitCount;
+    /**
+     * 未命中次数（包括缓存项已过期的情况）
+     */
+    private final long missCount;
+    /**
+     * 因容量不足或过期而被移除的缓存项数量
+     */
+    private final long evictionCount;
+    /**
+     * 当前缓存的结果数量
+     */
+    private final long size;
+
+    /**
+     * 命中率，尚无任何请求时为0
+     */
+    public double getHitRate() {
+        long total = this.hitCount + this.missCount;
+        return total == 0 ? 0 : (double) this.hitCount / total;
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * 缓存检查结果的规则装饰器，适用于同一目标被反复检查的昂贵规则。
+ * 以keyExtractor从目标中提取的键缓存被装饰规则的检查结果，缓存容量有限，按LRU淘汰，并可设置存活时间。
+ * 每次命中返回缓存结果的一个副本（包括其中的结果详情），调用方修改返回的结果不会影响缓存；负载对象不会被复制，应使用不可变对象。keyExtractor返回null时不使用缓存。
+ * 被装饰规则抛出的异常不会被缓存。
+ * <pre>
+ * Rule&lt;Order&gt; rule = new BuyerMustBePmRule().cached(Order::getBuyerId, 10_000, Duration.ofMinutes(1));
+ * </pre>
+ * 被装饰的规则若为规则集，则由其自身的check()方法执行，不使用外层的引擎。
+ * 由引擎执行时，被装饰的规则同样遵循引擎的recordPasseds设置，不记录通过信息的结果与其他结果分开缓存。
+ *
+ * @param <T> 待检测的目标类型
+ */
+public class CachedRule<T> extends Rule<T> {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    /**
+     * 被装饰的规则
+     */
+    @Getter
+    private final Rule<T> delegate;
+    private final Function<? super T, ?> keyExtractor;
+    private final ResultCache cache;
+
+    public CachedRule(@NonNull Rule<T> delegate, @NonNull Function<? super T, ?> keyExtractor) {
+        this(delegate, keyExtractor, DEFAULT_MAXIMUM_SIZE, null);
+    }
+
+    /**
+     * @param maximumSize 最多缓存的结果数量
+     * @param ttl         缓存项的存活时间，为null时永不过期
+     */
+    public CachedRule(@NonNull Rule<T> delegate, @NonNull Function<? super T, ?> keyExtractor, int maximumSize, Duration ttl) {
+        this.delegate = delegate;
+        this.keyExtractor = keyExtractor;
+        this.cache = new ResultCache(maximumSize, ttl == null ? 0 : ttl.toNanos());
+        this.setName(delegate.getName());
+        this.setDescription(delegate.getDescription());
+    }
+
+    @Override
+    public RuleCheckResult check(T target) {
+        Object key = this.keyExtractor.apply(target);
+        if (key == null) {
+            return this.delegate.check(target);
+        }
+        return this.cache.get(key, () -> this.delegate.check(target));
+    }
+
+    @Override
+    RuleCheckResult checkWith(T target, RuleEngine engine) {
+        Object key = this.keyExtractor.apply(target);
+        if (key == null) {
+            return this.delegate.checkWith(target, engine);
+        }
+        return this.cache.get(ResultCache.keyFor(key, engine.isRecordPasseds()), () -> this.delegate.checkWith(target, engine));
+    }
+
+    public CacheStats getStats() {
+        return this.cache.stats();
+    }
+
+    public void invalidate(Object key) {
+        this.cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+}
@@ -0,0 +1,339 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 编译后的规则执行计划。
+ * 通过RuleEngine.compile()创建。编译时将规则树展开为以数组保存子节点的只读结构，并预先确定每个节点的执行策略（串行/并行、AND/OR），
+ * 执行时不再遍历RuleSet中的ArrayList，也不再经过checkAsync的虚方法分派。
+ * 执行计划是不可变的，可以被多个线程共享并发执行。串行节点和叶子节点在调用线程上同步执行，并行节点的子节点提交到引擎的线程池执行，等待的线程也会执行其中尚未被线程池取走的子节点。
+ *
+ * @param <T> 待检测的目标类型
+ */
+public final class CompiledRule<T> {
+
+    private static final byte LEAF = 0;
+    private static final byte SERIAL = 1;
+    private static final byte PARALLEL = 2;
+
+    /**
+     * 编译时使用的原始规则
+     */
+    @Getter
+    private final Rule<T> rule;
+    private final RuleEngine engine;
+    private final Node<T> root;
+    /**
+     * 规则树中是否包含实现了BatchRule的叶子规则
+     */
+    private final boolean batched;
+
+    CompiledRule(@NonNull Rule<T> rule, @NonNull RuleEngine engine) {
+        this.rule = rule;
+        this.engine = engine;
+        this.root = compile(rule);
+        this.batched = containsBatchRule(this.root);
+    }
+
+    public RuleCheckResult check(@NonNull T target) {
+        return this.evaluate(this.root, target, this.engine.evaluationScope());
+    }
+
+    public CompletableFuture<RuleCheckResult> checkAsync(@NonNull T target) {
+        return CompletableFuture.supplyAsync(() -> this.check(target), this.engine.getThreadPool());
+    }
+
+    /**
+     * 在当前线程上依次执行整个执行计划，并行节点的子节点也依次执行，不提交任何任务到线程池。
+     * 用于批量检查，此时并行度来自目标对象的分块，而非规则。
+     */
+    RuleCheckResult checkSequential(T target) {
+        return this.evaluateSequential(this.root, target, this.engine.evaluationScope());
+    }
+
+    /**
+     * 检查targets中[from, to)范围内的目标，结果写入results的对应位置。
+     * 规则树中包含BatchRule时，按节点逐层执行：每个节点对分块中仍需执行该节点的所有目标执行一次，BatchRule因此对每个分块只调用一次checkAll()，
+     * 而各目标的串行、并行语义与逐个执行时相同。开启去重或上下文，或为规则集、BatchRule设置了超时时，这些都是针对单个目标的，因此仍然逐个执行。
+     */
+    void checkChunk(List<T> targets, int from, int to, RuleCheckResult[] results) {
+        if (!this.batched || this.engine.isDeduplicate() || this.engine.isContextEnabled() || hasChunkTimeout(this.root, this.engine)) {
+            for (int i = from; i < to; i++) {
+                results[i] = this.checkSequential(targets.get(i));
+            }
+            return;
+        }
+        RuleCheckResult[] chunkResults = this.evaluateChunk(this.root, targets.subList(from, to), this.engine);
+        System.arraycopy(chunkResults, 0, results, from, to - from);
+    }
+
+    private RuleCheckResult[] evaluateChunk(Node<T> node, List<T> targets, RuleEngine engine) {
+        if (node.kind == LEAF) {
+            return engine.checkLeafAll(node.rule, targets);
+        }
+        if (engine.hasListeners()) {
+            return engine.observeAll(node.rule, targets.size(), () -> this.evaluateChunkSet(node, targets, engine));
+        }
+        return this.evaluateChunkSet(node, targets, engine);
+    }
+
+    /**
+     * 对多个目标执行规则集节点。依次对仍需执行的目标执行各子节点，已被短路的目标不再参与后续子节点的执行
+     */
+    private RuleCheckResult[] evaluateChunkSet(Node<T> node, List<T> targets, RuleEngine engine) {
+        int count = targets.size();
+        RuleCheckResult[] combinedResults = new RuleCheckResult[count];
+        RuleCheckResult[] finalResults = new RuleCheckResult[count];
+        int[] active = new int[count];
+        for (int i = 0; i < count; i++) {
+            combinedResults[i] = new RuleCheckResult();
+            active[i] = i;
+        }
+        int activeCount = count;
+        boolean stopOnError = node.and && (node.kind == SERIAL || node.failFast);
+        AdaptiveOrder adaptiveOrder = node.adaptiveOrder;
+        int[] order = adaptiveOrder == null ? null : adaptiveOrder.order();
+        for (int c = 0; c < node.children.length && activeCount > 0; c++) {
+            int childIndex = order == null ? c : order[c];
+            List<T> childTargets = targets;
+            if (activeCount < count) {
+                childTargets = new ArrayList<>(activeCount);
+                for (int k = 0; k < activeCount; k++) {
+                    childTargets.add(targets.get(active[k]));
+                }
+            }
+            long start = System.nanoTime();
+            RuleCheckResult[] childResults = this.evaluateChunk(node.children[childIndex], childTargets, engine);
+            long nanosPerTarget = (System.nanoTime() - start) / activeCount;
+            int remaining = 0;
+            for (int k = 0; k < activeCount; k++) {
+                int i = active[k];
+                RuleCheckResult result = childResults[k];
+                if (adaptiveOrder != null) {
+                    adaptiveOrder.record(childIndex, nanosPerTarget, result);
+                }
+                combinedResults[i] = combinedResults[i].combine(result);
+                if (node.and) {
+                    if (stopOnError && result.hasError()) {
+                        finalResults[i] = combinedResults[i];
+                        continue;
+                    }
+                } else {
+                    if (!result.hasError()) {
+                        finalResults[i] = result;
+                        continue;
+                    }
+                }
+                active[remaining++] = i;
+            }
+            activeCount = remaining;
+        }
+        for (int i = 0; i < count; i++) {
+            if (finalResults[i] == null) {
+                finalResults[i] = combinedResults[i];
+            }
+            if (adaptiveOrder != null) {
+                adaptiveOrder.completed();
+            }
+        }
+        return finalResults;
+    }
+
+    /**
+     * 执行一个节点。engine为本次执行使用的引擎，开启去重时，同一次执行中相同的规则只执行一次
+     */
+    private RuleCheckResult evaluateSequential(Node<T> node, T target, RuleEngine engine) {
+        if (engine.isEvaluationScoped()) {
+            return engine.shareInline(node.rule, () -> this.evaluateSequentialObserved(node, target, engine));
+        }
+        return this.evaluateSequentialObserved(node, target, engine);
+    }
+
+    private RuleCheckResult evaluateSequentialObserved(Node<T> node, T target, RuleEngine engine) {
+        if (node.kind == LEAF) {
+            return engine.checkLeafTimed(node.rule, target);
+        }
+        long timeout = engine.timeoutNanos(node.rule, false);
+        if (timeout > 0) {
+            return engine.runWithTimeout(node.rule, timeout, () -> this.evaluateSequentialSetObserved(node, target, engine));
+        }
+        return this.evaluateSequentialSetObserved(node, target, engine);
+    }
+
+    private RuleCheckResult evaluateSequentialSetObserved(Node<T> node, T target, RuleEngine engine) {
+        if (engine.hasListeners()) {
+            return engine.observe(node.rule, () -> this.evaluateSequentialSet(node, target, engine));
+        }
+        return this.evaluateSequentialSet(node, target, engine);
+    }
+
+    private RuleCheckResult evaluateSequentialSet(Node<T> node, T target, RuleEngine engine) {
+        if (node.adaptiveOrder != null) {
+            return node.adaptiveOrder.evaluate(i -> this.evaluateSequential(node.children[i], target, engine));
+        }
+        boolean stopOnError = node.and && (node.kind == SERIAL || node.failFast);
+        RuleCheckResult combinedResult = new RuleCheckResult();
+        for (Node<T> child : node.children) {
+            RuleCheckResult result = this.evaluateSequential(child, target, engine);
+            combinedResult = combinedResult.combine(result);
+            if (node.and) {
+                if (stopOnError && result.hasError()) {
+                    return combinedResult;
+                }
+            } else {
+                if (!result.hasError()) {
+                    return result;
+                }
+            }
+        }
+        return combinedResult;
+    }
+
+    private RuleCheckResult evaluate(Node<T> node, T target, RuleEngine engine) {
+        if (engine.isEvaluationScoped()) {
+            return engine.shareInline(node.rule, () -> this.evaluateObserved(node, target, engine));
+        }
+        return this.evaluateObserved(node, target, engine);
+    }
+
+    private RuleCheckResult evaluateObserved(Node<T> node, T target, RuleEngine engine) {
+        if (node.kind == LEAF) {
+            return engine.checkLeafTimed(node.rule, target);
+        }
+        long timeout = engine.timeoutNanos(node.rule, false);
+        if (timeout > 0) {
+            return engine.runWithTimeout(node.rule, timeout, () -> this.evaluateSetObserved(node, target, engine));
+        }
+        return this.evaluateSetObserved(node, target, engine);
+    }
+
+    private RuleCheckResult evaluateSetObserved(Node<T> node, T target, RuleEngine engine) {
+        if (engine.hasListeners()) {
+            return engine.observe(node.rule, () -> this.evaluateUnobserved(node, target, engine));
+        }
+        return this.evaluateUnobserved(node, target, engine);
+    }
+
+    private RuleCheckResult evaluateUnobserved(Node<T> node, T target, RuleEngine engine) {
+        switch (node.kind) {
+            case SERIAL:
+                return this.evaluateSerial(node, target, engine);
+            case PARALLEL:
+                return this.evaluateParallel(node, target, engine);
+            default:
+                return engine.checkLeafTimed(node.rule, target);
+        }
+    }
+
+    private RuleCheckResult evaluateSerial(Node<T> node, T target, RuleEngine engine) {
+        if (node.adaptiveOrder != null) {
+            return node.adaptiveOrder.evaluate(i -> this.evaluate(node.children[i], target, engine));
+        }
+        RuleCheckResult combinedResult = new RuleCheckResult();
+        for (Node<T> child : node.children) {
+            RuleCheckResult result = this.evaluate(child, target, engine);
+            combinedResult = combinedResult.combine(result);
+            if (node.and) {
+                if (result.hasError()) {
+                    return combinedResult;
+                }
+            } else {
+                if (!result.hasError()) {
+                    return result;
+                }
+            }
+        }
+        return combinedResult;
+    }
+
+    /**
+     * 子节点提交到线程池，尚未被取走的子节点由当前线程执行，嵌套的并行节点不会耗尽线程池
+     */
+    private RuleCheckResult evaluateParallel(Node<T> node, T target, RuleEngine engine) {
+        Node<T>[] children = node.children;
+        Rule<?>[] rules = new Rule<?>[children.length];
+        for (int i = 0; i < children.length; i++) {
+            rules[i] = children[i].rule;
+        }
+        return engine.forkJoin(rules, i -> this.evaluate(children[i], target, engine), node.operator, node.failFast);
+    }
+
+    private static boolean containsBatchRule(Node<?> node) {
+        if (node.kind == LEAF) {
+            return node.rule instanceof BatchRule;
+        }
+        for (Node<?> child : node.children) {
+            if (containsBatchRule(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否为规则集节点或BatchRule设置了超时
+     */
+    private static boolean hasChunkTimeout(Node<?> node, RuleEngine engine) {
+        if (node.kind == LEAF) {
+            return node.rule instanceof BatchRule && engine.timeoutNanos(node.rule, true) > 0;
+        }
+        if (engine.timeoutNanos(node.rule, false) > 0) {
+            return true;
+        }
+        for (Node<?> child : node.children) {
+            if (hasChunkTimeout(child, engine)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T> compile(Rule<T> rule) {
+        if (!(rule instanceof RuleSet)) {
+            return new Node<>(rule, LEAF, RuleSet.Operator.AND, false, null, null);
+        }
+        RuleSet<T> ruleSet = (RuleSet<T>) rule;
+        List<Rule<T>> subRules = ruleSet.getSubRules();
+        Node<T>[] children = (Node<T>[]) new Node<?>[subRules.size()];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = compile(subRules.get(i));
+        }
+        if (ruleSet instanceof ParallelRuleSet) {
+            boolean failFast = ((ParallelRuleSet<T>) ruleSet).isFailFast();
+            return new Node<>(rule, PARALLEL, ruleSet.getOperator(), failFast, children, null);
+        }
+        // 自适应执行顺序的统计信息由执行计划独立维护，与原始规则集互不影响
+        SerialRuleSet<T> serialRuleSet = (SerialRuleSet<T>) ruleSet;
+        AdaptiveOrder adaptiveOrder = serialRuleSet.isAdaptive() ? serialRuleSet.newAdaptiveOrder() : null;
+        return new Node<>(rule, SERIAL, ruleSet.getOperator(), false, children, adaptiveOrder);
+    }
+
+    private static final class Node<T> {
+        private final Rule<T> rule;
+        private final byte kind;
+        private final RuleSet.Operator operator;
+        private final boolean and;
+        private final boolean failFast;
+        private final Node<T>[] children;
+        /**
+         * 开启了自适应执行顺序的串行节点的执行顺序，其他节点为null
+         */
+        private final AdaptiveOrder adaptiveOrder;
+
+        private Node(Rule<T> rule, byte kind, RuleSet.Operator operator, boolean failFast, Node<T>[] children, AdaptiveOrder adaptiveOrder) {
+            this.rule = rule;
+            this.kind = kind;
+            this.operator = operator;
+            this.and = operator == RuleSet.Operator.AND;
+            this.failFast = failFast;
+            this.children = children;
+            this.adaptiveOrder = adaptiveOrder;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * 不可变的结果详情序列。
+ * 序列由保存元素的数据块和拼接两个子序列的节点组成，追加和拼接只需创建一个新节点，不复制任何元素，被拼接的序列可以被多个结果共享。
+ */
+final class DetailSequence {
+
+    static final DetailSequence EMPTY = new DetailSequence(new RuleCheckResultDetail[0], null, null, 0);
+
+    /**
+     * 数据块，仅叶子节点不为null
+     */
+    private final RuleCheckResultDetail[] chunk;
+    private final DetailSequence left;
+    private final DetailSequence right;
+    private final int size;
+
+    private DetailSequence(RuleCheckResultDetail[] chunk, DetailSequence left, DetailSequence right, int size) {
+        this.chunk = chunk;
+        this.left = left;
+        this.right = right;
+        this.size = size;
+    }
+
+    static DetailSequence of(RuleCheckResultDetail detail) {
+        return new DetailSequence(new RuleCheckResultDetail[]{detail}, null, null, 1);
+    }
+
+    static DetailSequence copyOf(Collection<RuleCheckResultDetail> details) {
+        if (details.isEmpty()) {
+            return EMPTY;
+        }
+        RuleCheckResultDetail[] chunk = details.toArray(new RuleCheckResultDetail[0]);
+        return new DetailSequence(chunk, null, null, chunk.length);
+    }
+
+    /**
+     * 复制序列中的每个结果详情，返回由副本组成的新序列
+     */
+    DetailSequence copyDetails() {
+        if (this.size == 0) {
+            return EMPTY;
+        }
+        ArrayList<RuleCheckResultDetail> details = this.toArrayList();
+        RuleCheckResultDetail[] chunk = new RuleCheckResultDetail[details.size()];
+        for (int i = 0; i < chunk.length; i++) {
+            chunk[i] = details.get(i).copy();
+        }
+        return new DetailSequence(chunk, null, null, chunk.length);
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    DetailSequence append(RuleCheckResultDetail detail) {
+        return this.concat(of(detail));
+    }
+
+    DetailSequence concat(DetailSequence other) {
+        if (other.size == 0) {
+            return this;
+        }
+        if (this.size == 0) {
+            return other;
+        }
+        return new DetailSequence(null, this, other, this.size + other.size);
+    }
+
+    ArrayList<RuleCheckResultDetail> toArrayList() {
+        return this.addTo(new ArrayList<>(this.size));
+    }
+
+    /**
+     * 按顺序将各结果详情添加到list中，返回list
+     */
+    <L extends Collection<RuleCheckResultDetail>> L addTo(L list) {
+        // 连续合并产生的树可能很深，因此使用显式的栈遍历，避免栈溢出
+        ArrayDeque<DetailSequence> stack = new ArrayDeque<>();
+        DetailSequence node = this;
+        while (node != null) {
+            if (node.chunk != null) {
+                for (RuleCheckResultDetail detail : node.chunk) {
+                    list.add(detail);
+                }
+                node = stack.poll();
+            } else {
+                stack.push(node.right);
+                node = node.left;
+            }
+        }
+        return list;
+    }
+}
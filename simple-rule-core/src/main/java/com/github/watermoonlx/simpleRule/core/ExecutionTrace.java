@@ -0,0 +1,237 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单次执行的时间线。通过RuleEngine.trace()创建，记录规则树中每个节点的开始和结束时间、执行线程，以及节点是否被跳过或取消。
+ * 可以通过drawImage()将时间线绘制为热力图：每个规则标注耗时，颜色越深耗时越长，并标出穿过各并行分支的关键路径。
+ * <p>
+ * 同一个规则实例在规则树中出现多次时，只记录第一次执行。
+ */
+public final class ExecutionTrace {
+
+    /**
+     * 被跟踪的规则
+     */
+    @Getter
+    private final Rule<?> rule;
+    /**
+     * 检查结果
+     */
+    @Getter
+    private final RuleCheckResult result;
+    private final Map<Rule<?>, Span> spans;
+    private final Map<Rule<?>, Rule<?>> parents = new IdentityHashMap<>();
+
+    private ExecutionTrace(Rule<?> rule, RuleCheckResult result, Map<Rule<?>, Span> spans) {
+        this.rule = rule;
+        this.result = result;
+        this.spans = spans;
+        this.collectParents(rule);
+    }
+
+    private void collectParents(Rule<?> node) {
+        if (node instanceof RuleSet) {
+            for (Rule<?> subRule : ((RuleSet<?>) node).getSubRules()) {
+                this.parents.putIfAbsent(subRule, node);
+                this.collectParents(subRule);
+            }
+        }
+    }
+
+    /**
+     * 获取规则节点的执行记录，未执行时返回null
+     */
+    public Span getSpan(@NonNull Rule<?> rule) {
+        return this.spans.get(rule);
+    }
+
+    /**
+     * 所有执行记录，按开始时间排序
+     */
+    public List<Span> getSpans() {
+        List<Span> spans = new ArrayList<>(this.spans.values());
+        spans.sort(Comparator.comparingLong(Span::getStartNanos));
+        return spans;
+    }
+
+    /**
+     * 整个规则树的执行耗时（纳秒）
+     */
+    public long getTotalNanos() {
+        Span span = this.getSpan(this.rule);
+        return span == null ? 0 : span.getDurationNanos();
+    }
+
+    /**
+     * 获取规则节点的执行状态
+     */
+    public NodeStatus getStatus(@NonNull Rule<?> rule) {
+        Span span = this.getSpan(rule);
+        Rule<?> parent = this.parents.get(rule);
+        Span parentSpan = parent == null ? null : this.getSpan(parent);
+        if (span == null) {
+            // 并行规则集中尚未开始的子规则，是在规则集完成时被取消的；串行规则集中未执行的子规则，是被短路跳过的
+            return parent instanceof ParallelRuleSet && parentSpan != null ? NodeStatus.CANCELLED : NodeStatus.SKIPPED;
+        }
+        if (span.getOutcome() == RuleOutcome.CANCELLED || !span.isFinished()) {
+            return NodeStatus.CANCELLED;
+        }
+        if (parentSpan != null && parentSpan.isFinished() && span.getEndNanos() > parentSpan.getEndNanos()) {
+            // 所在的规则集已经完成，该规则的结果被丢弃
+            return NodeStatus.CANCELLED;
+        }
+        return NodeStatus.COMPLETED;
+    }
+
+    /**
+     * 关键路径，即决定整体耗时的规则节点序列（从根节点开始）。
+     * 串行规则集中所有已执行的子规则都在关键路径上；并行规则集只取其等待的最后一个完成的子规则。
+     */
+    public List<Rule<?>> getCriticalPath() {
+        List<Rule<?>> path = new ArrayList<>();
+        this.collectCriticalPath(this.rule, path);
+        return Collections.unmodifiableList(path);
+    }
+
+    private void collectCriticalPath(Rule<?> node, List<Rule<?>> path) {
+        Span span = this.getSpan(node);
+        if (span == null) {
+            return;
+        }
+        path.add(node);
+        if (node instanceof SerialRuleSet) {
+            for (Rule<?> subRule : ((SerialRuleSet<?>) node).getSubRules()) {
+                this.collectCriticalPath(subRule, path);
+            }
+        } else if (node instanceof ParallelRuleSet) {
+            Rule<?> critical = null;
+            long criticalEnd = -1;
+            for (Rule<?> subRule : ((ParallelRuleSet<?>) node).getSubRules()) {
+                Span subSpan = this.getSpan(subRule);
+                if (subSpan == null || !subSpan.isFinished() || this.getStatus(subRule) == NodeStatus.CANCELLED) {
+                    continue;
+                }
+                if (subSpan.getEndNanos() > criticalEnd) {
+                    critical = subRule;
+                    criticalEnd = subSpan.getEndNanos();
+                }
+            }
+            if (critical != null) {
+                this.collectCriticalPath(critical, path);
+            }
+        }
+    }
+
+    public void drawImage(@NonNull OutputStream outputStream) throws IOException {
+        ImageGenerator.INSTANCE.generateWithTrace(this, outputStream);
+    }
+
+    public void drawImage(@NonNull String filePath) throws IOException {
+        ImageGenerator.INSTANCE.generateWithTrace(this, filePath);
+    }
+
+    /**
+     * 规则节点的执行状态
+     */
+    public static enum NodeStatus {
+        /**
+         * 已执行完毕，结果计入了所在规则集
+         */
+        COMPLETED,
+        /**
+         * 被取消：所在的并行规则集已被其他子规则短路，该规则未开始、未完成或结果被丢弃
+         */
+        CANCELLED,
+        /**
+         * 被串行规则集短路跳过，从未执行
+         */
+        SKIPPED
+    }
+
+    /**
+     * 单个规则节点的执行记录。时间均为相对于本次执行开始时刻的纳秒数
+     */
+    public static final class Span {
+        @Getter
+        private final Rule<?> rule;
+        @Getter
+        private final long startNanos;
+        /**
+         * 开始执行该节点的线程名称
+         */
+        @Getter
+        private final String threadName;
+        private volatile long endNanos = -1;
+        private volatile RuleOutcome outcome;
+
+        private Span(Rule<?> rule, long startNanos, String threadName) {
+            this.rule = rule;
+            this.startNanos = startNanos;
+            this.threadName = threadName;
+        }
+
+        public boolean isFinished() {
+            return this.endNanos >= 0;
+        }
+
+        /**
+         * 结束时间，尚未结束时返回-1
+         */
+        public long getEndNanos() {
+            return this.endNanos;
+        }
+
+        /**
+         * 执行耗时，尚未结束时返回-1
+         */
+        public long getDurationNanos() {
+            long end = this.endNanos;
+            return end < 0 ? -1 : end - this.startNanos;
+        }
+
+        /**
+         * 执行结果分类，尚未结束时返回null
+         */
+        public RuleOutcome getOutcome() {
+            return this.outcome;
+        }
+    }
+
+    /**
+     * 记录单次执行的监听器
+     */
+    static final class Recorder implements RuleListener {
+        private final long origin = System.nanoTime();
+        private final ConcurrentHashMap<Rule<?>, Span> spans = new ConcurrentHashMap<>();
+
+        @Override
+        public void onStart(Rule<?> rule) {
+            this.spans.putIfAbsent(rule, new Span(rule, System.nanoTime() - this.origin, Thread.currentThread().getName()));
+        }
+
+        @Override
+        public void onFinish(Rule<?> rule, long durationNanos, RuleOutcome outcome, Throwable error) {
+            Span span = this.spans.get(rule);
+            if (span != null && span.outcome == null) {
+                span.outcome = outcome;
+                span.endNanos = System.nanoTime() - this.origin;
+            }
+        }
+
+        ExecutionTrace toTrace(Rule<?> rule, RuleCheckResult result) {
+            return new ExecutionTrace(rule, result, this.spans);
+        }
+    }
+}
@@ -0,0 +1,878 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 表达式的解析和编译，供ExpressionRule使用。
+ * 表达式只解析一次，编译为由lambda组成的求值树：属性由LambdaMetafactory生成的访问器读取，检查时不再反射；
+ * 常量在编译时折叠，比较运算按操作数的静态类型选择专用的实现，数值比较不装箱。
+ * long、BigInteger、BigDecimal等无法用double精确表示的数值按精确值比较，其余数值比较和算术运算按double计算。
+ * <pre>
+ * or      := and (('||' | 'or') and)*
+ * and     := not (('&amp;&amp;' | 'and') not)*
+ * not     := ('!' | 'not') not | compare
+ * compare := sum (('&lt;' | '&lt;=' | '&gt;' | '&gt;=' | '==' | '!=') sum)?
+ * sum     := product (('+' | '-') product)*
+ * product := unary (('*' | '/' | '%') unary)*
+ * unary   := '-' unary | primary
+ * primary := 数字 | 字符串 | true | false | null | 属性路径 | '(' or ')'
+ * </pre>
+ */
+final class ExpressionCompiler {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final String[] COMPARE_OPERATORS = {"<=", ">=", "==", "!=", "<", ">"};
+
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private final Class<?> rootType;
+    private final String source;
+    private int pos;
+
+    private ExpressionCompiler(Class<?> rootType, String source) {
+        this.rootType = rootType;
+        this.source = source;
+    }
+
+    /**
+     * 编译表达式
+     *
+     * @throws IllegalArgumentException 表达式有语法错误、属性不存在、类型不匹配或结果不是布尔值
+     */
+    static Compiled compile(Class<?> rootType, String source) {
+        ExpressionCompiler compiler = new ExpressionCompiler(rootType, source);
+        Value value = compiler.parseOr();
+        compiler.skipWhitespace();
+        if (compiler.pos < source.length()) {
+            throw compiler.error("存在无法解析的内容");
+        }
+        if (value.kind != Kind.BOOLEAN) {
+            throw new IllegalArgumentException(String.format("表达式[%s]的结果不是布尔值", source));
+        }
+        return new Compiled(value.bool, value.bound);
+    }
+
+    //region 语法分析
+    private Value parseOr() {
+        Value left = this.parseAnd();
+        while (this.accept("||") || this.acceptWord("or")) {
+            left = or(this.requireBoolean(left, "||"), this.requireBoolean(this.parseAnd(), "||"));
+        }
+        return left;
+    }
+
+    private Value parseAnd() {
+        Value left = this.parseNot();
+        while (this.accept("&&") || this.acceptWord("and")) {
+            left = and(this.requireBoolean(left, "&&"), this.requireBoolean(this.parseNot(), "&&"));
+        }
+        return left;
+    }
+
+    private Value parseNot() {
+        this.skipWhitespace();
+        if ((this.source.startsWith("!", this.pos) && !this.source.startsWith("!=", this.pos) && this.accept("!"))
+                || this.acceptWord("not")) {
+            Value operand = this.requireBoolean(this.parseNot(), "!");
+            if (operand.constant) {
+                return Value.constant(!operand.bool.test(null));
+            }
+            Predicate<Object> p = operand.bool;
+            return Value.bool(t -> !p.test(t));
+        }
+        return this.parseCompare();
+    }
+
+    private Value parseCompare() {
+        Value left = this.parseSum();
+        for (String op : COMPARE_OPERATORS) {
+            if (this.accept(op)) {
+                return this.compare(op, left, this.parseSum());
+            }
+        }
+        return left;
+    }
+
+    private Value parseSum() {
+        Value left = this.parseProduct();
+        while (true) {
+            if (this.accept("+")) {
+                left = this.arithmetic('+', left, this.parseProduct());
+            } else if (this.accept("-")) {
+                left = this.arithmetic('-', left, this.parseProduct());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Value parseProduct() {
+        Value left = this.parseUnary();
+        while (true) {
+            if (this.accept("*")) {
+                left = this.arithmetic('*', left, this.parseUnary());
+            } else if (this.accept("/")) {
+                left = this.arithmetic('/', left, this.parseUnary());
+            } else if (this.accept("%")) {
+                left = this.arithmetic('%', left, this.parseUnary());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Value parseUnary() {
+        if (this.accept("-")) {
+            Value operand = this.requireNumber(this.parseUnary(), "-");
+            if (operand.constant) {
+                Value negated = Value.constant(-operand.number.applyAsDouble(null));
+                negated.decimal = operand.decimal == null ? null : operand.decimal.negate();
+                return negated;
+            }
+            ToDoubleFunction<Object> f = operand.number;
+            return Value.number(t -> -f.applyAsDouble(t));
+        }
+        return this.parsePrimary();
+    }
+
+    private Value parsePrimary() {
+        this.skipWhitespace();
+        if (this.pos >= this.source.length()) {
+            throw this.error("表达式不完整");
+        }
+        char c = this.source.charAt(this.pos);
+        if (c == '(') {
+            this.pos++;
+            Value value = this.parseOr();
+            if (!this.accept(")")) {
+                throw this.error("缺少右括号");
+            }
+            return value;
+        }
+        if (c == '\'' || c == '"') {
+            return Value.constant(this.parseString(c));
+        }
+        if (Character.isDigit(c)) {
+            int start = this.pos;
+            while (this.pos < this.source.length()
+                    && (Character.isDigit(this.source.charAt(this.pos)) || this.source.charAt(this.pos) == '.')) {
+                this.pos++;
+            }
+            try {
+                BigDecimal decimal = new BigDecimal(this.source.substring(start, this.pos));
+                Value value = Value.constant(decimal.doubleValue());
+                value.decimal = decimal;
+                return value;
+            } catch (NumberFormatException e) {
+                this.pos = start;
+                throw this.error("数字格式错误");
+            }
+        }
+        if (Character.isJavaIdentifierStart(c)) {
+            return this.parsePath();
+        }
+        throw this.error("无法识别的字符'" + c + "'");
+    }
+
+    private String parseString(char quote) {
+        StringBuilder sb = new StringBuilder();
+        int start = this.pos++;
+        while (this.pos < this.source.length()) {
+            char c = this.source.charAt(this.pos++);
+            if (c == quote) {
+                return sb.toString();
+            }
+            if (c == '\\' && this.pos < this.source.length()) {
+                c = this.source.charAt(this.pos++);
+            }
+            sb.append(c);
+        }
+        this.pos = start;
+        throw this.error("字符串缺少结束引号");
+    }
+
+    private Value parsePath() {
+        int start = this.pos;
+        String first = this.identifier();
+        if (!this.source.startsWith(".", this.pos)) {
+            switch (first) {
+                case "true":
+                    return Value.constant(true);
+                case "false":
+                    return Value.constant(false);
+                case "null":
+                    return Value.NULL;
+                default:
+            }
+        }
+
+        Class<?> type = this.rootType;
+        Function<Object, Object> path = null;
+        String name = first;
+        StringBuilder text = new StringBuilder(first);
+        Member member;
+        while (true) {
+            member = this.resolve(type, name, start);
+            if (path == null) {
+                path = member.object;
+            } else {
+                Function<Object, Object> owner = path;
+                Function<Object, Object> next = member.object;
+                path = t -> {
+                    Object value = owner.apply(t);
+                    return value == null ? null : next.apply(value);
+                };
+            }
+            type = member.type;
+            if (!this.source.startsWith(".", this.pos)) {
+                break;
+            }
+            this.pos++;
+            name = this.identifier();
+            text.append('.').append(name);
+        }
+
+        boolean direct = path == member.object;
+        Function<Object, Object> object = path;
+        if (isNumeric(type)) {
+            ToDoubleFunction<Object> number = direct && member.number != null ? member.number : t -> {
+                Object value = object.apply(t);
+                return value == null ? Double.NaN : ((Number) value).doubleValue();
+            };
+            Value value = new Value(Kind.NUMBER, type, object, number, null, false);
+            value.path = this.rootType.getName() + ":" + text;
+            return value;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            Predicate<Object> bool = direct && member.bool != null ? member.bool : t -> Boolean.TRUE.equals(object.apply(t));
+            return new Value(Kind.BOOLEAN, type, object, null, bool, false);
+        }
+        return new Value(Kind.OBJECT, type, object, null, null, false);
+    }
+
+    private String identifier() {
+        this.skipWhitespace();
+        int start = this.pos;
+        if (this.pos >= this.source.length() || !Character.isJavaIdentifierStart(this.source.charAt(this.pos))) {
+            throw this.error("缺少属性名");
+        }
+        while (this.pos < this.source.length() && Character.isJavaIdentifierPart(this.source.charAt(this.pos))) {
+            this.pos++;
+        }
+        return this.source.substring(start, this.pos);
+    }
+
+    private boolean accept(String symbol) {
+        this.skipWhitespace();
+        if (this.source.startsWith(symbol, this.pos)) {
+            this.pos += symbol.length();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean acceptWord(String word) {
+        this.skipWhitespace();
+        int end = this.pos + word.length();
+        if (this.source.startsWith(word, this.pos)
+                && (end == this.source.length() || !Character.isJavaIdentifierPart(this.source.charAt(end)))) {
+            this.pos = end;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (this.pos < this.source.length() && Character.isWhitespace(this.source.charAt(this.pos))) {
+            this.pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(String.format("表达式[%s]第%d个字符处%s", this.source, this.pos + 1, message));
+    }
+
+    private Value requireBoolean(Value value, String op) {
+        if (value.kind != Kind.BOOLEAN) {
+            throw this.error("运算符" + op + "只能用于布尔值");
+        }
+        return value;
+    }
+
+    private Value requireNumber(Value value, String op) {
+        if (value.kind != Kind.NUMBER) {
+            throw this.error("运算符" + op + "只能用于数值");
+        }
+        return value;
+    }
+
+    /**
+     * 按double计算时，超出double精确范围的整数字面量会被舍入，如9007199254740993会变为9007199254740992
+     */
+    private Value requireDouble(Value value) {
+        BigDecimal decimal = value.decimal;
+        if (decimal != null && decimal.stripTrailingZeros().scale() <= 0
+                && new BigDecimal(decimal.doubleValue()).compareTo(decimal) != 0) {
+            throw this.error(String.format("整数%s超出double的精确范围，只能与long、BigInteger或BigDecimal属性比较", decimal.toPlainString()));
+        }
+        return value;
+    }
+    //endregion
+
+    //region 运算
+    private static Value or(Value left, Value right) {
+        if (left.constant) {
+            return left.bool.test(null) ? left : right;
+        }
+        Predicate<Object> l = left.bool;
+        Predicate<Object> r = right.bool;
+        return Value.bool(t -> l.test(t) || r.test(t));
+    }
+
+    private static Value and(Value left, Value right) {
+        if (left.constant) {
+            return left.bool.test(null) ? right : left;
+        }
+        Predicate<Object> l = left.bool;
+        Predicate<Object> r = right.bool;
+        return Value.bool(t -> l.test(t) && r.test(t));
+    }
+
+    private Value arithmetic(char op, Value left, Value right) {
+        ToDoubleFunction<Object> l = this.requireDouble(this.requireNumber(left, String.valueOf(op))).number;
+        ToDoubleFunction<Object> r = this.requireDouble(this.requireNumber(right, String.valueOf(op))).number;
+        ToDoubleFunction<Object> f;
+        switch (op) {
+            case '+':
+                f = t -> l.applyAsDouble(t) + r.applyAsDouble(t);
+                break;
+            case '-':
+                f = t -> l.applyAsDouble(t) - r.applyAsDouble(t);
+                break;
+            case '*':
+                f = t -> l.applyAsDouble(t) * r.applyAsDouble(t);
+                break;
+            case '/':
+                f = t -> l.applyAsDouble(t) / r.applyAsDouble(t);
+                break;
+            default:
+                f = t -> l.applyAsDouble(t) % r.applyAsDouble(t);
+        }
+        return left.constant && right.constant ? Value.constant(f.applyAsDouble(null)) : Value.number(f);
+    }
+
+    private Value compare(String op, Value left, Value right) {
+        Value result;
+        if (left.kind == Kind.NULL || right.kind == Kind.NULL) {
+            if (!op.equals("==") && !op.equals("!=")) {
+                throw this.error("null只能用==或!=比较");
+            }
+            Function<Object, Object> f = (left.kind == Kind.NULL ? right : left).object;
+            result = op.equals("==") ? Value.bool(t -> f.apply(t) == null) : Value.bool(t -> f.apply(t) != null);
+        } else if (left.kind == Kind.NUMBER && right.kind == Kind.NUMBER) {
+            boolean leftVariable = right.constant || !left.constant;
+            Value variable = leftVariable ? left : right;
+            Value constant = leftVariable ? right : left;
+            String normalized = leftVariable ? op : mirror(op);
+            if (!isDouble(variable.type) || !isDouble(constant.type)) {
+                result = compareExact(normalized, variable, constant);
+            } else {
+                result = compareNumber(normalized, this.requireDouble(variable).number, this.requireDouble(constant));
+                if (variable.path != null && constant.constant && normalized.charAt(0) != '=' && normalized.charAt(0) != '!') {
+                    double bound = constant.number.applyAsDouble(null);
+                    if (!Double.isNaN(bound)) {
+                        result.bound = new Bound(variable.path, variable.number, normalized, bound);
+                    }
+                }
+            }
+        } else if (left.kind == Kind.BOOLEAN && right.kind == Kind.BOOLEAN && (op.equals("==") || op.equals("!="))) {
+            Predicate<Object> l = left.bool;
+            Predicate<Object> r = right.bool;
+            result = op.equals("==") ? Value.bool(t -> l.test(t) == r.test(t)) : Value.bool(t -> l.test(t) != r.test(t));
+        } else if (left.kind == right.kind || left.type == Object.class || right.type == Object.class) {
+            result = this.compareObject(op, left, right);
+        } else {
+            throw this.error(String.format("无法比较%s和%s", left.type.getSimpleName(), right.type.getSimpleName()));
+        }
+        return left.constant && right.constant ? Value.constant(result.bool.test(null)) : result;
+    }
+
+    private static Value compareNumber(String op, ToDoubleFunction<Object> l, Value right) {
+        if (right.constant) {
+            double c = right.number.applyAsDouble(null);
+            switch (op) {
+                case "<":
+                    return Value.bool(t -> l.applyAsDouble(t) < c);
+                case "<=":
+                    return Value.bool(t -> l.applyAsDouble(t) <= c);
+                case ">":
+                    return Value.bool(t -> l.applyAsDouble(t) > c);
+                case ">=":
+                    return Value.bool(t -> l.applyAsDouble(t) >= c);
+                case "==":
+                    return Value.bool(t -> l.applyAsDouble(t) == c);
+                default:
+                    return Value.bool(t -> l.applyAsDouble(t) != c);
+            }
+        }
+        ToDoubleFunction<Object> r = right.number;
+        switch (op) {
+            case "<":
+                return Value.bool(t -> l.applyAsDouble(t) < r.applyAsDouble(t));
+            case "<=":
+                return Value.bool(t -> l.applyAsDouble(t) <= r.applyAsDouble(t));
+            case ">":
+                return Value.bool(t -> l.applyAsDouble(t) > r.applyAsDouble(t));
+            case ">=":
+                return Value.bool(t -> l.applyAsDouble(t) >= r.applyAsDouble(t));
+            case "==":
+                return Value.bool(t -> l.applyAsDouble(t) == r.applyAsDouble(t));
+            default:
+                return Value.bool(t -> l.applyAsDouble(t) != r.applyAsDouble(t));
+        }
+    }
+
+    private Value compareObject(String op, Value left, Value right) {
+        // 枚举与字符串常量比较时，在编译时将字符串转换为枚举常量
+        if (left.constant && !right.constant) {
+            return this.compareObject(mirror(op), right, left);
+        }
+        Function<Object, Object> l = left.object;
+        if (right.constant && left.type.isEnum() && right.type == String.class) {
+            Object constant = this.enumConstant(left.type, (String) right.object.apply(null));
+            right = new Value(Kind.OBJECT, left.type, t -> constant, null, null, true);
+        }
+        if (isCharacter(left.type) || isCharacter(right.type)) {
+            right = this.characterOperand(left, right);
+        }
+        Function<Object, Object> r = right.object;
+        if (op.equals("==") || op.equals("!=")) {
+            boolean expected = op.equals("==");
+            if (right.constant) {
+                Object c = r.apply(null);
+                return Value.bool(t -> looseEquals(l.apply(t), c) == expected);
+            }
+            return Value.bool(t -> looseEquals(l.apply(t), r.apply(t)) == expected);
+        }
+        if (!Comparable.class.isAssignableFrom(left.type) && !isNumeric(left.type) && left.type != char.class && left.type != Object.class) {
+            throw this.error(left.type.getSimpleName() + "不支持大小比较");
+        }
+        IntPredicate sign = sign(op);
+        return Value.bool(t -> {
+            Object a = l.apply(t);
+            Object b = r.apply(t);
+            return a != null && b != null && sign.test(looseCompare(a, b));
+        });
+    }
+
+    /**
+     * 字符属性只能与字符属性或单个字符的字符串常量比较，字符串常量在编译时转换为Character
+     */
+    private Value characterOperand(Value left, Value right) {
+        if (isCharacter(left.type) == isCharacter(right.type) || left.type == Object.class || right.type == Object.class) {
+            return right;
+        }
+        if (isCharacter(left.type) && right.constant && right.type == String.class) {
+            String text = (String) right.object.apply(null);
+            if (text.length() != 1) {
+                throw this.error(String.format("字符只能与单个字符比较，'%s'不是单个字符", text));
+            }
+            Character constant = text.charAt(0);
+            return new Value(Kind.OBJECT, Character.class, t -> constant, null, null, true);
+        }
+        throw this.error(String.format("无法比较%s和%s", left.type.getSimpleName(), right.type.getSimpleName()));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object enumConstant(Class<?> type, String name) {
+        try {
+            return Enum.valueOf((Class<? extends Enum>) type, name);
+        } catch (IllegalArgumentException e) {
+            throw this.error(String.format("枚举%s不存在常量%s", type.getSimpleName(), name));
+        }
+    }
+
+    private static String mirror(String op) {
+        switch (op) {
+            case "<":
+                return ">";
+            case "<=":
+                return ">=";
+            case ">":
+                return "<";
+            case ">=":
+                return "<=";
+            default:
+                return op;
+        }
+    }
+
+    /**
+     * long、BigInteger、BigDecimal等数值按精确值比较，与常量比较时，整数常量与整数属性直接按long比较。
+     * 为null的属性与任何数值都不相等，与double比较的语义相同
+     */
+    private static Value compareExact(String op, Value left, Value right) {
+        IntPredicate relation = relation(op);
+        boolean incomparable = op.equals("!=");
+        Function<Object, Object> l = left.object;
+        if (right.constant) {
+            BigDecimal c = right.decimal != null ? right.decimal : toBigDecimal(right.object.apply(null));
+            if (c == null) {
+                return Value.constant(incomparable);
+            }
+            if (c.stripTrailingZeros().scale() <= 0 && c.compareTo(LONG_MIN) >= 0 && c.compareTo(LONG_MAX) <= 0) {
+                long integral = c.longValue();
+                return Value.bool(t -> {
+                    Object a = l.apply(t);
+                    if (a instanceof Long || a instanceof Integer || a instanceof Short || a instanceof Byte) {
+                        return relation.test(Long.compare(((Number) a).longValue(), integral));
+                    }
+                    BigDecimal d = toBigDecimal(a);
+                    return d == null ? incomparable : relation.test(d.compareTo(c));
+                });
+            }
+            return Value.bool(t -> {
+                BigDecimal d = toBigDecimal(l.apply(t));
+                return d == null ? incomparable : relation.test(d.compareTo(c));
+            });
+        }
+        Function<Object, Object> r = right.object;
+        return Value.bool(t -> {
+            BigDecimal a = toBigDecimal(l.apply(t));
+            BigDecimal b = toBigDecimal(r.apply(t));
+            return a == null || b == null ? incomparable : relation.test(a.compareTo(b));
+        });
+    }
+
+    /**
+     * 数值的精确值，为null、NaN或无穷大时返回null
+     */
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (!(value instanceof Number)) {
+            return null;
+        }
+        double d = ((Number) value).doubleValue();
+        return Double.isNaN(d) || Double.isInfinite(d) ? null : new BigDecimal(d);
+    }
+
+    private static IntPredicate relation(String op) {
+        switch (op) {
+            case "==":
+                return c -> c == 0;
+            case "!=":
+                return c -> c != 0;
+            default:
+                return sign(op);
+        }
+    }
+
+    private static IntPredicate sign(String op) {
+        switch (op) {
+            case "<":
+                return c -> c < 0;
+            case "<=":
+                return c -> c <= 0;
+            case ">":
+                return c -> c > 0;
+            default:
+                return c -> c >= 0;
+        }
+    }
+
+    private static boolean looseEquals(Object a, Object b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            return false;
+        }
+        if (a instanceof Number && b instanceof Number) {
+            if (isDouble(a.getClass()) && isDouble(b.getClass())) {
+                return ((Number) a).doubleValue() == ((Number) b).doubleValue();
+            }
+            BigDecimal x = toBigDecimal(a);
+            BigDecimal y = toBigDecimal(b);
+            return x != null && y != null && x.compareTo(y) == 0;
+        }
+        if (a instanceof Enum && b instanceof String) {
+            return ((Enum<?>) a).name().equals(b);
+        }
+        if (a instanceof String && b instanceof Enum) {
+            return ((Enum<?>) b).name().equals(a);
+        }
+        return a.equals(b);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int looseCompare(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            BigDecimal x = isDouble(a.getClass()) && isDouble(b.getClass()) ? null : toBigDecimal(a);
+            BigDecimal y = x == null ? null : toBigDecimal(b);
+            return y != null ? x.compareTo(y) : Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+
+    private static boolean isCharacter(Class<?> type) {
+        return type == char.class || type == Character.class;
+    }
+
+    /**
+     * 类型的值能否用double精确表示
+     */
+    private static boolean isDouble(Class<?> type) {
+        return type == double.class || type == Double.class || type == float.class || type == Float.class
+                || type == int.class || type == Integer.class || type == short.class || type == Short.class
+                || type == byte.class || type == Byte.class;
+    }
+
+    private static boolean isNumeric(Class<?> type) {
+        return Number.class.isAssignableFrom(type)
+                || (type.isPrimitive() && type != boolean.class && type != char.class && type != void.class);
+    }
+    //endregion
+
+    //region 属性访问
+    /**
+     * 解析属性：依次查找getX()、isX()、x()方法和公共字段
+     */
+    private Member resolve(Class<?> type, String name, int start) {
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (String candidate : new String[]{"get" + capitalized, "is" + capitalized, name}) {
+            Method method;
+            try {
+                method = type.getMethod(candidate);
+            } catch (NoSuchMethodException e) {
+                continue;
+            }
+            if (method.getReturnType() != void.class && !Modifier.isStatic(method.getModifiers())) {
+                return Member.of(method);
+            }
+        }
+        try {
+            Field field = type.getField(name);
+            if (!Modifier.isStatic(field.getModifiers())) {
+                field.setAccessible(true);
+                return new Member(field.getType(), invoker(LOOKUP.unreflectGetter(field)), null, null);
+            }
+        } catch (NoSuchFieldException | IllegalAccessException | SecurityException ignored) {
+        }
+        this.pos = start;
+        throw this.error(String.format("类型%s不存在属性%s", type.getSimpleName(), name));
+    }
+
+    private static Function<Object, Object> invoker(MethodHandle handle) {
+        MethodHandle h = handle.asType(MethodType.methodType(Object.class, Object.class));
+        return t -> {
+            try {
+                return h.invokeExact(t);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * 通过LambdaMetafactory为getter生成函数式接口的实现，调用与直接调用getter等价，可被JIT内联。
+     * 目标类不能从本类的类加载器访问等原因导致无法生成时，返回null
+     */
+    @SuppressWarnings("unchecked")
+    private static <F> F metafactory(MethodHandle handle, Method getter, Class<F> type, String name,
+                                     MethodType samType, Class<?> returnType) {
+        Class<?> owner = getter.getDeclaringClass();
+        try {
+            if (Class.forName(owner.getName(), false, ExpressionCompiler.class.getClassLoader()) != owner) {
+                return null;
+            }
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, name, MethodType.methodType(type),
+                    samType, handle, MethodType.methodType(returnType, owner));
+            return (F) site.getTarget().invoke();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * 属性的访问器
+     */
+    private static final class Member {
+        final Class<?> type;
+        final Function<Object, Object> object;
+        /**
+         * 基本数值类型属性的访问器，不装箱，其他类型为null
+         */
+        final ToDoubleFunction<Object> number;
+        /**
+         * boolean属性的访问器，不装箱，其他类型为null
+         */
+        final Predicate<Object> bool;
+
+        Member(Class<?> type, Function<Object, Object> object, ToDoubleFunction<Object> number, Predicate<Object> bool) {
+            this.type = type;
+            this.object = object;
+            this.number = number;
+            this.bool = bool;
+        }
+
+        @SuppressWarnings("unchecked")
+        static Member of(Method getter) {
+            MethodHandle handle;
+            try {
+                getter.setAccessible(true);
+                handle = LOOKUP.unreflect(getter);
+            } catch (IllegalAccessException | SecurityException e) {
+                throw new IllegalArgumentException("无法访问" + getter, e);
+            }
+            Class<?> type = getter.getReturnType();
+            Class<?> boxed = type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : Object.class;
+            Function<Object, Object> object = metafactory(handle, getter, Function.class, "apply",
+                    MethodType.methodType(Object.class, Object.class), boxed);
+            if (object == null) {
+                object = invoker(handle);
+            }
+            ToDoubleFunction<Object> number = null;
+            Predicate<Object> bool = null;
+            if (type == boolean.class) {
+                bool = metafactory(handle, getter, Predicate.class, "test",
+                        MethodType.methodType(boolean.class, Object.class), boolean.class);
+            } else if (type.isPrimitive() && type != char.class) {
+                number = metafactory(handle, getter, ToDoubleFunction.class, "applyAsDouble",
+                        MethodType.methodType(double.class, Object.class), double.class);
+            }
+            return new Member(type, object, number, bool);
+        }
+    }
+    //endregion
+
+    /**
+     * 编译结果
+     */
+    static final class Compiled {
+        final Predicate<Object> predicate;
+        /**
+         * 表达式为“数值属性 比较运算符 常量”的形式时，为该比较的描述，否则为null
+         */
+        final Bound bound;
+
+        Compiled(Predicate<Object> predicate, Bound bound) {
+            this.predicate = predicate;
+            this.bound = bound;
+        }
+    }
+
+    /**
+     * 数值属性与常量的比较，如amount &lt; 1000，属性的值能用double精确表示（不包括long、BigInteger、BigDecimal等）。供RangeRuleSet建立索引
+     */
+    static final class Bound {
+        /**
+         * 属性的标识，由目标类型和属性路径组成，标识相同的属性取值相同
+         */
+        final String field;
+        /**
+         * 读取属性的值，属性为null时返回NaN
+         */
+        final ToDoubleFunction<Object> value;
+        /**
+         * 比较运算符，属性总在左侧：&lt;、&lt;=、&gt;或&gt;=
+         */
+        final String operator;
+        final double constant;
+
+        Bound(String field, ToDoubleFunction<Object> value, String operator, double constant) {
+            this.field = field;
+            this.value = value;
+            this.operator = operator;
+            this.constant = constant;
+        }
+    }
+
+    private enum Kind {
+        NUMBER, BOOLEAN, OBJECT, NULL
+    }
+
+    /**
+     * 编译后的子表达式。object总是可用，number仅NUMBER类型可用，bool仅BOOLEAN类型可用。
+     * 常量的各个函数忽略参数，编译时以null调用即可得到常量值
+     */
+    private static final class Value {
+        static final Value NULL = new Value(Kind.NULL, Object.class, t -> null, null, null, true);
+
+        final Kind kind;
+        final Class<?> type;
+        final Function<Object, Object> object;
+        final ToDoubleFunction<Object> number;
+        final Predicate<Object> bool;
+        final boolean constant;
+        /**
+         * 属性路径的标识，仅数值属性不为null
+         */
+        String path;
+        /**
+         * 数值属性与常量的比较的描述，其他情况为null
+         */
+        Bound bound;
+        /**
+         * 数字字面量的精确值，其他情况为null
+         */
+        BigDecimal decimal;
+
+        Value(Kind kind, Class<?> type, Function<Object, Object> object, ToDoubleFunction<Object> number,
+              Predicate<Object> bool, boolean constant) {
+            this.kind = kind;
+            this.type = type;
+            this.object = object;
+            this.number = number;
+            this.bool = bool;
+            this.constant = constant;
+        }
+
+        static Value constant(double value) {
+            Double boxed = value;
+            return new Value(Kind.NUMBER, double.class, t -> boxed, t -> value, null, true);
+        }
+
+        static Value constant(boolean value) {
+            Boolean boxed = value;
+            return new Value(Kind.BOOLEAN, boolean.class, t -> boxed, null, t -> value, true);
+        }
+
+        static Value constant(String value) {
+            return new Value(Kind.OBJECT, String.class, t -> value, null, null, true);
+        }
+
+        static Value number(ToDoubleFunction<Object> number) {
+            return new Value(Kind.NUMBER, double.class, t -> number.applyAsDouble(t), number, null, false);
+        }
+
+        static Value bool(Predicate<Object> bool) {
+            return new Value(Kind.BOOLEAN, boolean.class, t -> bool.test(t), null, bool, false);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * 由表达式定义的规则，适用于阈值、相等判断等简单规则，表达式可以从配置中加载，修改条件无需重新发布。
+ * 表达式在构造时解析并编译一次，属性通过LambdaMetafactory生成的访问器读取，检查时不再解析或反射。
+ * 得到的是普通的Rule，可以组合进串行、并行规则集，也可以导出流程图。
+ * <pre>
+ * Rule&lt;Order&gt; rule = Rule.expression(Order.class, "amount &lt; 1000 &amp;&amp; buyer == 'Jake'");
+ * </pre>
+ * 支持的语法：
+ * <ul>
+ * <li>属性路径：amount、buyer.level，依次查找getX()、isX()、x()方法和公共字段，中间的属性为null时结果为null</li>
+ * <li>字面量：数字、'字符串'或"字符串"、true、false、null</li>
+ * <li>算术运算：+ - * / %，只能用于数值，按double计算</li>
+ * <li>比较运算：&lt; &lt;= &gt; &gt;= == !=。long、BigInteger、BigDecimal等属性按精确值比较（BigDecimal按compareTo()比较，1.50 == 1.5），
+ * 其他数值（包括算术运算的结果）按double比较，因此超出double精确范围（2^53）的整数字面量只能与前者比较，否则构造时抛出异常；
+ * 为null的数值属性与任何数值都不相等；
+ * 枚举可以与其常量名比较；char属性可以与单个字符的字符串比较，如grade == 'A'；其他对象按equals()和compareTo()比较</li>
+ * <li>逻辑运算：&amp;&amp;（and）、||（or）、!（not），以及括号</li>
+ * </ul>
+ * 表达式的结果必须是布尔值，为true时通过，否则返回错误（或警告）。
+ * 表达式有语法错误、属性不存在或类型不匹配时，构造时抛出IllegalArgumentException。
+ *
+ * @param <T> 待检测的目标类型
+ */
+public class ExpressionRule<T> extends Rule<T> {
+
+    @Getter
+    private final Class<T> type;
+
+    @Getter
+    private final String expression;
+
+    /**
+     * 不满足条件时的消息
+     */
+    @Getter
+    private final String message;
+
+    /**
+     * 不满足条件时是否只返回警告，默认返回错误
+     */
+    @Getter
+    @Setter
+    private boolean warning;
+
+    private final Predicate<Object> predicate;
+
+    private final ExpressionCompiler.Bound bound;
+
+    /**
+     * 规则名称为表达式本身，不满足条件时的消息为“不满足条件：表达式”
+     */
+    public ExpressionRule(@NonNull Class<T> type, @NonNull String expression) {
+        this(type, expression, null);
+    }
+
+    /**
+     * @param message 不满足条件时的消息，为null时使用默认消息
+     */
+    public ExpressionRule(@NonNull Class<T> type, @NonNull String expression, String message) {
+        ExpressionCompiler.Compiled compiled = ExpressionCompiler.compile(type, expression);
+        this.predicate = compiled.predicate;
+        this.bound = compiled.bound;
+        this.type = type;
+        this.expression = expression;
+        this.message = message == null ? "不满足条件：" + expression : message;
+        this.setName(expression);
+    }
+
+    @Override
+    public RuleCheckResult check(T target) {
+        if (this.predicate.test(target)) {
+            return this.pass();
+        }
+        return this.warning ? this.warning(this.message) : this.error(this.message);
+    }
+
+    /**
+     * 类型和表达式相同的规则视为等价
+     */
+    @Override
+    public Object getEquivalenceKey() {
+        return Arrays.asList(this.type, this.expression, this.message, this.warning);
+    }
+
+    /**
+     * 表达式为“数值属性 比较运算符 常量”的形式时，返回该比较的描述，供RangeRuleSet建立索引；否则返回null
+     */
+    ExpressionCompiler.Bound getBound() {
+        return this.bound;
+    }
+
+    @Override
+    public String toString() {
+        return "ExpressionRule(" + this.expression + ")";
+    }
+}
@@ -12,88 +12,117 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 
+/**
+ * 流程图生成器。该类是无状态的，所有规则共享同一个实例。
+ */
 class ImageGenerator {
 
+    static final ImageGenerator INSTANCE = new ImageGenerator();
+
     private static final String PASS_COLOR = "#GreenYellow";
     private static final String ERROR_COLOR = "#ff4d4f";
     private static final String WARNING_COLOR = "#faad14";
     private static final String NOT_RUN_COLOR = "#d9d9d9";
-
-    private HashMap<String, Pair<String, RuleCheckResultDetail>> resultMap;
+    private static final String CANCELLED_COLOR = "#bfbfbf";
+    /**
+     * 热力图的颜色范围：耗时最短为浅黄色，耗时最长为红色
+     */
+    private static final int[] HEAT_COLD = {0xff, 0xf1, 0xb8};
+    private static final int[] HEAT_HOT = {0xf5, 0x22, 0x2d};
 
     public void generate(@NonNull Rule<?> rule, @NonNull OutputStream outputStream) throws IOException {
-        String diagramDescription = this.getDiagramDescription(rule);
-        SourceStringReader reader = new SourceStringReader(diagramDescription);
-        reader.generateImage(outputStream);
+        this.generate(rule, null, outputStream);
     }
 
     public void generate(@NonNull Rule<?> rule, @NonNull String filePath) throws IOException {
-        Path absPath = Paths.get(filePath).toAbsolutePath();
-        if (!Files.exists(absPath)) {
-            Files.createFile(absPath);
-        }
-        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(filePath))) {
-            this.generate(rule, outputStream);
-        }
+        this.generate(rule, null, filePath);
     }
 
     public void generateWithResult(@NonNull Rule<?> rule, @NonNull RuleCheckResult result, @NonNull OutputStream outputStream) throws IOException {
-        try {
-            this.initResultMap(result);
-            this.generate(rule, outputStream);
-        } finally {
-            this.resultMap = null;
-        }
+        this.generate(rule, this.getResultMap(result), outputStream);
     }
 
     public void generateWithResult(@NonNull Rule<?> rule, @NonNull RuleCheckResult result, @NonNull String filePath) throws IOException {
-        try {
-            this.initResultMap(result);
-            this.generate(rule, filePath);
-        } finally {
-            this.resultMap = null;
+        this.generate(rule, this.getResultMap(result), filePath);
+    }
+
+    public void generateWithTrace(@NonNull ExecutionTrace trace, @NonNull OutputStream outputStream) throws IOException {
+        this.generate(trace.getRule(), this.getResultMap(trace.getResult()), new TraceView(trace), outputStream);
+    }
+
+    public void generateWithTrace(@NonNull ExecutionTrace trace, @NonNull String filePath) throws IOException {
+        this.generate(trace.getRule(), this.getResultMap(trace.getResult()), new TraceView(trace), filePath);
+    }
+
+    private void generate(Rule<?> rule, HashMap<String, Pair<String, RuleCheckResultDetail>> resultMap, OutputStream outputStream) throws IOException {
+        this.generate(rule, resultMap, null, outputStream);
+    }
+
+    private void generate(Rule<?> rule, HashMap<String, Pair<String, RuleCheckResultDetail>> resultMap, String filePath) throws IOException {
+        this.generate(rule, resultMap, null, filePath);
+    }
+
+    private void generate(Rule<?> rule, HashMap<String, Pair<String, RuleCheckResultDetail>> resultMap, TraceView trace, OutputStream outputStream) throws IOException {
+        String diagramDescription = this.getDiagramDescription(rule, resultMap, trace);
+        SourceStringReader reader = new SourceStringReader(diagramDescription);
+        reader.generateImage(outputStream);
+    }
+
+    private void generate(Rule<?> rule, HashMap<String, Pair<String, RuleCheckResultDetail>> resultMap, TraceView trace, String filePath) throws IOException {
+        Path absPath = Paths.get(filePath).toAbsolutePath();
+        if (!Files.exists(absPath)) {
+            Files.createFile(absPath);
+        }
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(filePath))) {
+            this.generate(rule, resultMap, trace, outputStream);
         }
     }
 
-    private void initResultMap(@NonNull RuleCheckResult result) {
-        this.resultMap = new HashMap<>();
+    private HashMap<String, Pair<String, RuleCheckResultDetail>> getResultMap(@NonNull RuleCheckResult result) {
+        HashMap<String, Pair<String, RuleCheckResultDetail>> resultMap = new HashMap<>();
         for (RuleCheckResultDetail r : result.getPasseds()) {
-            this.resultMap.put(r.getRuleName(), new Pair<>(PASS_COLOR, r));
+            resultMap.put(r.getRuleName(), new Pair<>(PASS_COLOR, r));
         }
         for (RuleCheckResultDetail r : result.getErrors()) {
-            this.resultMap.put(r.getRuleName(), new Pair<>(ERROR_COLOR, r));
+            resultMap.put(r.getRuleName(), new Pair<>(ERROR_COLOR, r));
         }
         for (RuleCheckResultDetail r : result.getWarnings()) {
-            this.resultMap.put(r.getRuleName(), new Pair<>(WARNING_COLOR, r));
+            resultMap.put(r.getRuleName(), new Pair<>(WARNING_COLOR, r));
         }
         for (RuleCheckResultDetail r : result.getResolveds()) {
-            this.resultMap.put(r.getRuleName(), new Pair<>(WARNING_COLOR, r));
+            resultMap.put(r.getRuleName(), new Pair<>(WARNING_COLOR, r));
         }
+        return resultMap;
     }
 
-    private String getDiagramDescription(@NonNull Rule<?> rule) {
+    private String getDiagramDescription(@NonNull Rule<?> rule, HashMap<String, Pair<String, RuleCheckResultDetail>> resultMap, TraceView trace) {
         StringBuilder sb = new StringBuilder();
         sb.append("@startuml\n");
         sb.append("scale 800*600\n");
         sb.append("start\n");
 
-        this.getDiagramDescriptionBody(rule, null, sb);
+        this.getDiagramDescriptionBody(rule, null, resultMap, trace, sb);
 
         sb.append("end\n");
+        if (trace != null) {
+            sb.append("footer 总耗时：").append(formatNanos(trace.trace.getTotalNanos())).append("\n");
+        }
         sb.append("@enduml\n");
 
         return sb.toString();
     }
 
-    private void getDiagramDescriptionBody(@NonNull Rule<?> rule, RuleSet.Operator parentOp, StringBuilder sb) {
+    private void getDiagramDescriptionBody(@NonNull Rule<?> rule, RuleSet.Operator parentOp,
+                                           HashMap<String, Pair<String, RuleCheckResultDetail>> resultMap, TraceView trace, StringBuilder sb) {
         if (rule instanceof SerialRuleSet) {
             SerialRuleSet<?> ruleSet = (SerialRuleSet<?>) rule;
             if (ruleSet.getOperator() == RuleSet.Operator.OR && parentOp != RuleSet.Operator.OR) {
                 sb.append("partition 满足任意一个即可 {\n");
             }
             for (Rule<?> subRule : ruleSet.getSubRules()) {
-                this.getDiagramDescriptionBody(subRule, ruleSet.getOperator(), sb);
+                this.getDiagramDescriptionBody(subRule, ruleSet.getOperator(), resultMap, trace, sb);
             }
             if (ruleSet.getOperator() == RuleSet.Operator.OR && parentOp != RuleSet.Operator.OR) {
                 sb.append("}\n");
@@ -110,21 +139,23 @@ class ImageGenerator {
                 } else {
                     sb.append("fork again\n");
                 }
-                this.getDiagramDescriptionBody(subRule, ruleSet.getOperator(), sb);
+                this.getDiagramDescriptionBody(subRule, ruleSet.getOperator(), resultMap, trace, sb);
                 count++;
             }
             sb.append("end fork\n");
             if (ruleSet.getOperator() == RuleSet.Operator.OR) {
                 sb.append("}\n");
             }
+        } else if (trace != null) {
+            this.appendTracedActivity(rule, resultMap, trace, sb);
         } else {
-            if (this.resultMap == null) {
+            if (resultMap == null) {
                 sb.append(":=== ").append(rule.getName());
                 if (rule.getDescription() != null && !rule.getDescription().isEmpty()) {
                     sb.append("\n").append(rule.getDescription());
                 }
             } else {
-                Pair<String, RuleCheckResultDetail> colorAndDetail = this.resultMap.getOrDefault(rule.getName(), new Pair<>(NOT_RUN_COLOR, null));
+                Pair<String, RuleCheckResultDetail> colorAndDetail = resultMap.getOrDefault(rule.getName(), new Pair<>(NOT_RUN_COLOR, null));
                 String color = colorAndDetail.getKey();
                 RuleCheckResultDetail detail = colorAndDetail.getValue();
                 sb.append(color).append(":=== ").append(rule.getName());
@@ -139,4 +170,90 @@ class ImageGenerator {
         }
     }
 
+    /**
+     * 以热力图的形式绘制叶子规则：颜色表示耗时，并标注耗时、执行线程、执行状态，以及是否位于关键路径上
+     */
+    private void appendTracedActivity(Rule<?> rule, HashMap<String, Pair<String, RuleCheckResultDetail>> resultMap,
+                                      TraceView trace, StringBuilder sb) {
+        ExecutionTrace.Span span = trace.trace.getSpan(rule);
+        ExecutionTrace.NodeStatus status = trace.trace.getStatus(rule);
+        String color;
+        if (status == ExecutionTrace.NodeStatus.SKIPPED) {
+            color = NOT_RUN_COLOR;
+        } else if (status == ExecutionTrace.NodeStatus.CANCELLED) {
+            color = CANCELLED_COLOR;
+        } else {
+            color = heatColor(span.getDurationNanos(), trace.maxLeafNanos);
+        }
+        sb.append(color).append(":=== ").append(rule.getName());
+        if (rule.getDescription() != null && !rule.getDescription().isEmpty()) {
+            sb.append("\n").append(rule.getDescription());
+        }
+        sb.append("\n----");
+        if (trace.criticalPath.containsKey(rule)) {
+            sb.append("\n<color:#1d39c4>**关键路径**</color>");
+        }
+        if (status == ExecutionTrace.NodeStatus.SKIPPED) {
+            sb.append("\n**已跳过**");
+        } else if (span == null) {
+            sb.append("\n**已取消**");
+        } else {
+            sb.append("\n**耗时：**");
+            sb.append(span.isFinished() ? formatNanos(span.getDurationNanos()) : "未完成");
+            sb.append("\n**线程：**").append(span.getThreadName());
+            if (status == ExecutionTrace.NodeStatus.CANCELLED) {
+                sb.append("\n**已取消**");
+            } else {
+                Pair<String, RuleCheckResultDetail> colorAndDetail = resultMap.get(rule.getName());
+                if (colorAndDetail != null && colorAndDetail.getValue().getMessage() != null) {
+                    sb.append("\n**结果：**").append(colorAndDetail.getValue().getMessage());
+                }
+            }
+        }
+        sb.append(";\n");
+    }
+
+    private static String heatColor(long nanos, long maxNanos) {
+        double ratio = maxNanos <= 0 ? 0 : Math.min(1.0, Math.max(0.0, (double) nanos / maxNanos));
+        StringBuilder sb = new StringBuilder("#");
+        for (int i = 0; i < 3; i++) {
+            int channel = (int) Math.round(HEAT_COLD[i] + (HEAT_HOT[i] - HEAT_COLD[i]) * ratio);
+            sb.append(String.format("%02x", channel));
+        }
+        return sb.toString();
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000_000) {
+            return String.format("%.1fµs", nanos / 1_000.0);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format("%.2fms", nanos / 1_000_000.0);
+        }
+        return String.format("%.2fs", nanos / 1_000_000_000.0);
+    }
+
+    /**
+     * 绘制时间线时预先计算的数据
+     */
+    private static final class TraceView {
+        private final ExecutionTrace trace;
+        private final IdentityHashMap<Rule<?>, Boolean> criticalPath = new IdentityHashMap<>();
+        private final long maxLeafNanos;
+
+        TraceView(ExecutionTrace trace) {
+            this.trace = trace;
+            for (Rule<?> rule : trace.getCriticalPath()) {
+                this.criticalPath.put(rule, Boolean.TRUE);
+            }
+            long max = 0;
+            for (ExecutionTrace.Span span : trace.getSpans()) {
+                if (!(span.getRule() instanceof RuleSet)) {
+                    max = Math.max(max, span.getDurationNanos());
+                }
+            }
+            this.maxLeafNanos = max;
+        }
+    }
+
 }
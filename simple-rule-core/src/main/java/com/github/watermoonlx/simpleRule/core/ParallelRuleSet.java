@@ -1,5 +1,8 @@
 package com.github.watermoonlx.simpleRule.core;
 
+import lombok.Getter;
+import lombok.Setter;
+
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -7,6 +10,14 @@ import java.util.concurrent.CompletableFuture;
  */
 public class ParallelRuleSet<T> extends RuleSet<T> {
 
+    /**
+     * 快速失败。仅对AND运算符有效：开启后，任意一个子规则产生错误即结束整个规则集的检查，其余尚未完成的子规则将被取消。
+     * 此时检查结果只包含已完成的子规则的结果。
+     */
+    @Getter
+    @Setter
+    private boolean failFast;
+
     public ParallelRuleSet(Operator operator,Rule<T>... rules) {
         super(operator, rules);
     }
@@ -19,4 +30,9 @@ public class ParallelRuleSet<T> extends RuleSet<T> {
     public CompletableFuture<RuleCheckResult> checkAsync(T target, RuleEngine engine) {
         return engine.runAsync(this, target);
     }
+
+    @Override
+    RuleCheckResult checkInline(T target, RuleEngine engine) {
+        return engine.runInline(this, target);
+    }
 }
@@ -0,0 +1,220 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 为大量数值范围规则建立索引的规则集，适用于同一批字段上、阈值各不相同的大量阈值规则（如按客户等级区分的金额上下限）。
+ * 形如“数值属性 比较运算符 常量”的表达式规则（如amount &lt; 1000，运算符为&lt;、&lt;=、&gt;或&gt;=）按属性分组，
+ * 按常量排序建立索引：检查时每个属性只读取一次，通过二分查找定位违反的规则，每个目标的时间复杂度为O(log n + k)，k为违反的规则数量。
+ * 其他规则（包括==、!=比较，long、BigInteger、BigDecimal等按精确值比较的属性，以及非表达式规则）逐个检查。
+ * <p>
+ * 语义与AND运算的并行规则集相同：所有子规则都会参与检查，结果中包含每个违反的规则各自的错误（或警告），其规则名称、消息与单独执行时相同。
+ * 结果详情按属性分组排列，不保证与注册顺序一致。
+ * 整个规则集作为一个规则执行，其子规则不会由引擎分别调度，也不会在流程图中单独展示。
+ * 由关闭了recordPasseds的引擎执行时，只检查违反的规则，每个目标的时间复杂度为O(log n + k)；
+ * 否则（包括直接调用check()时）还需为每个通过的规则生成通过信息，时间复杂度为O(n)。
+ * <pre>
+ * RangeRuleSet&lt;Order&gt; limits = new RangeRuleSet&lt;&gt;();
+ * for (Tier tier : tiers) {
+ *     limits.register(new ExpressionRule&lt;&gt;(Order.class, "amount &lt; " + tier.getMaxAmount(), tier.getName() + "金额超过上限"));
+ * }
+ * </pre>
+ *
+ * @param <T> 待检测的目标类型
+ */
+public class RangeRuleSet<T> extends Rule<T> {
+
+    private final ArrayList<Rule<T>> subRules = new ArrayList<>();
+
+    /**
+     * 按需构建的索引，注册新的子规则后失效
+     */
+    private volatile Index<T> index;
+
+    @SafeVarargs
+    public RangeRuleSet(Rule<T>... rules) {
+        for (Rule<T> rule : rules) {
+            this.register(rule);
+        }
+    }
+
+    public synchronized void register(@NonNull Rule<T> rule) {
+        this.subRules.add(rule);
+        this.index = null;
+    }
+
+    public synchronized List<Rule<T>> getSubRules() {
+        return Collections.unmodifiableList(new ArrayList<>(this.subRules));
+    }
+
+    /**
+     * 通过索引检查的子规则数量
+     */
+    public int getIndexedCount() {
+        return this.index().indexedCount;
+    }
+
+    @Override
+    public RuleCheckResult check(T target) {
+        return this.check(target, true);
+    }
+
+    /**
+     * 依据引擎的recordPasseds设置决定是否检查通过的规则
+     */
+    @Override
+    RuleCheckResult checkWith(T target, RuleEngine engine) {
+        return this.check(target, engine.isRecordPasseds());
+    }
+
+    private RuleCheckResult check(T target, boolean recordPasseds) {
+        Index<T> index = this.index();
+        RuleCheckResult result = new RuleCheckResult();
+        for (FieldIndex<T> field : index.fields) {
+            double value = field.value.applyAsDouble(target);
+            result = field.check(value, target, recordPasseds, result);
+        }
+        for (Rule<T> rule : index.others) {
+            result = combine(result, rule.check(target), recordPasseds);
+        }
+        return result;
+    }
+
+    private Index<T> index() {
+        Index<T> index = this.index;
+        if (index == null) {
+            synchronized (this) {
+                index = this.index;
+                if (index == null) {
+                    index = new Index<>(this.subRules);
+                    this.index = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private static RuleCheckResult combine(RuleCheckResult result, RuleCheckResult other, boolean recordPasseds) {
+        if (other == null || (!recordPasseds && other.isPassOnly())) {
+            return result;
+        }
+        return result.combine(other);
+    }
+
+    /**
+     * 二分查找第一个大于（strict为false时为大于等于）value的常量的位置
+     */
+    private static int search(double[] constants, double value, boolean strict) {
+        int low = 0;
+        int high = constants.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (constants[mid] < value || (strict && constants[mid] == value)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static final class Index<T> {
+        final List<FieldIndex<T>> fields = new ArrayList<>();
+        final List<Rule<T>> others = new ArrayList<>();
+        final int indexedCount;
+
+        Index(List<Rule<T>> rules) {
+            Map<String, List<ExpressionRule<T>>> groups = new LinkedHashMap<>();
+            int indexed = 0;
+            for (Rule<T> rule : rules) {
+                ExpressionCompiler.Bound bound = rule instanceof ExpressionRule ? ((ExpressionRule<T>) rule).getBound() : null;
+                if (bound == null) {
+                    this.others.add(rule);
+                } else {
+                    groups.computeIfAbsent(bound.field, k -> new ArrayList<>()).add((ExpressionRule<T>) rule);
+                    indexed++;
+                }
+            }
+            for (List<ExpressionRule<T>> group : groups.values()) {
+                this.fields.add(new FieldIndex<>(group));
+            }
+            this.indexedCount = indexed;
+        }
+    }
+
+    /**
+     * 同一属性上的范围规则，按运算符分为四组，每组按常量升序排列
+     */
+    private static final class FieldIndex<T> {
+        final ToDoubleFunction<Object> value;
+        final Bounds<T> lessThan;
+        final Bounds<T> lessOrEqual;
+        final Bounds<T> greaterThan;
+        final Bounds<T> greaterOrEqual;
+
+        FieldIndex(List<ExpressionRule<T>> rules) {
+            this.value = rules.get(0).getBound().value;
+            this.lessThan = new Bounds<>(rules, "<");
+            this.lessOrEqual = new Bounds<>(rules, "<=");
+            this.greaterThan = new Bounds<>(rules, ">");
+            this.greaterOrEqual = new Bounds<>(rules, ">=");
+        }
+
+        RuleCheckResult check(double value, T target, boolean recordPasseds, RuleCheckResult result) {
+            if (Double.isNaN(value)) {
+                // 属性为null时，所有比较均不成立
+                result = this.lessThan.check(target, 0, this.lessThan.size(), result, recordPasseds);
+                result = this.lessOrEqual.check(target, 0, this.lessOrEqual.size(), result, recordPasseds);
+                result = this.greaterThan.check(target, 0, this.greaterThan.size(), result, recordPasseds);
+                return this.greaterOrEqual.check(target, 0, this.greaterOrEqual.size(), result, recordPasseds);
+            }
+            // value < c 在 c <= value 时不成立，即前缀；value > c 在 c >= value 时不成立，即后缀
+            result = this.lessThan.check(target, 0, search(this.lessThan.constants, value, true), result, recordPasseds);
+            result = this.lessOrEqual.check(target, 0, search(this.lessOrEqual.constants, value, false), result, recordPasseds);
+            result = this.greaterThan.check(target, search(this.greaterThan.constants, value, false), this.greaterThan.size(), result, recordPasseds);
+            return this.greaterOrEqual.check(target, search(this.greaterOrEqual.constants, value, true), this.greaterOrEqual.size(), result, recordPasseds);
+        }
+    }
+
+    private static final class Bounds<T> {
+        final double[] constants;
+        final List<ExpressionRule<T>> rules = new ArrayList<>();
+
+        Bounds(List<ExpressionRule<T>> group, String operator) {
+            for (ExpressionRule<T> rule : group) {
+                if (rule.getBound().operator.equals(operator)) {
+                    this.rules.add(rule);
+                }
+            }
+            this.rules.sort(Comparator.comparingDouble(rule -> rule.getBound().constant));
+            this.constants = new double[this.rules.size()];
+            for (int i = 0; i < this.constants.length; i++) {
+                this.constants[i] = this.rules.get(i).getBound().constant;
+            }
+        }
+
+        int size() {
+            return this.constants.length;
+        }
+
+        /**
+         * 检查[from, to)范围内违反的规则；记录通过信息时，其余规则也需检查
+         */
+        RuleCheckResult check(T target, int from, int to, RuleCheckResult result, boolean recordPasseds) {
+            int start = recordPasseds ? 0 : from;
+            int end = recordPasseds ? this.rules.size() : to;
+            for (int i = start; i < end; i++) {
+                result = combine(result, this.rules.get(i).check(target), recordPasseds);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 检查结果的缓存。按键的哈希值分为多个分段，每个分段是一个按访问顺序淘汰的LinkedHashMap（LRU），由各自的锁保护，
+ * 因此不同分段上的读写互不阻塞。可以为缓存项设置存活时间（TTL），过期的缓存项在下次读取时被移除。
+ * <p>
+ * 缓存中保存的是检查结果的深副本，每次读取再返回一个新的深副本：结果详情对象也被复制，
+ * 调用方修改返回的结果（如添加错误、解决警告）或其中的结果详情（如修改消息）都不会影响缓存。负载对象本身不会被复制，应使用不可变对象。
+ * 同一个键同时未命中时，加载函数可能被并发调用多次，以最后写入的结果为准。
+ */
+final class ResultCache {
+
+    private static final int DEFAULT_STRIPES = 16;
+
+    private final Stripe[] stripes;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize 最多缓存的结果数量
+     * @param ttlNanos    缓存项的存活时间（纳秒），小于等于0时永不过期
+     */
+    ResultCache(int maximumSize, long ttlNanos) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize必须大于0");
+        }
+        int stripeCount = Math.min(DEFAULT_STRIPES, maximumSize);
+        int stripeCapacity = (maximumSize + stripeCount - 1) / stripeCount;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe(stripeCapacity);
+        }
+        this.ttlNanos = ttlNanos;
+    }
+
+    RuleCheckResult get(Object key, Supplier<RuleCheckResult> loader) {
+        Stripe stripe = this.stripeFor(key);
+        long now = this.ttlNanos > 0 ? System.nanoTime() : 0;
+        synchronized (stripe) {
+            Entry entry = stripe.get(key);
+            if (entry != null) {
+                if (this.ttlNanos <= 0 || now - entry.createdNanos < this.ttlNanos) {
+                    this.hits.increment();
+                    return entry.result.deepCopy();
+                }
+                stripe.remove(key);
+                this.evictions.increment();
+            }
+        }
+        this.misses.increment();
+        RuleCheckResult result = loader.get();
+        if (result == null) {
+            return null;
+        }
+        // 保存快照，而非调用方拿到的对象，避免调用方之后的修改影响缓存
+        Entry entry = new Entry(result.deepCopy(), now);
+        synchronized (stripe) {
+            stripe.put(key, entry);
+        }
+        return result;
+    }
+
+    void invalidate(Object key) {
+        for (Object cacheKey : new Object[]{key, keyFor(key, false)}) {
+            Stripe stripe = this.stripeFor(cacheKey);
+            synchronized (stripe) {
+                stripe.remove(cacheKey);
+            }
+        }
+    }
+
+    /**
+     * 关闭了recordPasseds的引擎加载的结果可能不包含通过信息（如RangeRuleSet只检查违反的规则），
+     * 因此以单独的键缓存，不会被记录通过信息的引擎读取
+     */
+    static Object keyFor(Object key, boolean recordPasseds) {
+        return recordPasseds ? key : new WithoutPasseds(key);
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class WithoutPasseds {
+        private final Object key;
+    }
+
+    void invalidateAll() {
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    CacheStats stats() {
+        long size = 0;
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return new CacheStats(this.hits.sum(), this.misses.sum(), this.evictions.sum(), size);
+    }
+
+    private Stripe stripeFor(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        h ^= h >>> 16;
+        return this.stripes[(h & 0x7fffffff) % this.stripes.length];
+    }
+
+    private static final class Entry {
+        private final RuleCheckResult result;
+        private final long createdNanos;
+
+        private Entry(RuleCheckResult result, long createdNanos) {
+            this.result = result;
+            this.createdNanos = createdNanos;
+        }
+    }
+
+    /**
+     * 缓存的一个分段，按访问顺序淘汰。由调用方以该对象为锁保护
+     */
+    private final class Stripe {
+        private final int capacity;
+        private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private Stripe(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private Entry get(Object key) {
+            return this.entries.get(key);
+        }
+
+        private void put(Object key, Entry entry) {
+            this.entries.put(key, entry);
+            if (this.entries.size() > this.capacity) {
+                // 访问顺序下，第一个键即最久未访问的键
+                Iterator<Object> eldest = this.entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                ResultCache.this.evictions.increment();
+            }
+        }
+
+        private void remove(Object key) {
+            this.entries.remove(key);
+        }
+
+        private void clear() {
+            this.entries.clear();
+        }
+
+        private int size() {
+            return this.entries.size();
+        }
+    }
+}
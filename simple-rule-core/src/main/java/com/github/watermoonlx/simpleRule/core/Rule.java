@@ -1,5 +1,6 @@
 package com.github.watermoonlx.simpleRule.core;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
@@ -10,7 +11,10 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * 规则的抽象基类。
@@ -25,9 +29,72 @@ import java.util.concurrent.CompletableFuture;
 @Setter
 public abstract class Rule<T> {
 
+    /**
+     * 各规则类的描述信息，按类缓存，避免每次构造规则时都通过反射读取注解
+     */
+    private static final ClassValue<String[]> DESCRIPTORS = new ClassValue<String[]>() {
+        @Override
+        protected String[] computeValue(Class<?> type) {
+            String name = null;
+            String description = null;
+            Descriptor desc = type.getAnnotation(Descriptor.class);
+            if (desc != null) {
+                description = desc.value();
+                name = desc.name();
+            }
+            if (name == null || name.isEmpty()) {
+                name = type.getSimpleName();
+            }
+            return new String[]{name, description};
+        }
+    };
+
+    /**
+     * 各规则类的Cacheable注解，未标注时为null
+     */
+    private static final ClassValue<Cacheable> CACHEABLES = new ClassValue<Cacheable>() {
+        @Override
+        protected Cacheable computeValue(Class<?> type) {
+            return type.getAnnotation(Cacheable.class);
+        }
+    };
+
+    /**
+     * 各规则类在Descriptor中声明的超时（毫秒），未声明时为0
+     */
+    private static final ClassValue<Long> DECLARED_TIMEOUTS = new ClassValue<Long>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            Descriptor desc = type.getAnnotation(Descriptor.class);
+            return desc == null ? 0L : desc.timeoutMillis();
+        }
+    };
+
+    /**
+     * 各规则类在Descriptor中声明的执行器类别，未声明时为空字符串
+     */
+    private static final ClassValue<String> DECLARED_EXECUTORS = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            Descriptor desc = type.getAnnotation(Descriptor.class);
+            return desc == null ? "" : desc.executor();
+        }
+    };
+
     private String name;
     private String description;
-    private final ImageGenerator imageGenerator = new ImageGenerator();
+    /**
+     * 是否启用共享的通过结果，默认不启用，只影响当前规则实例。
+     * 启用后，该规则不带消息和负载的pass()将返回该规则实例缓存的只读结果，不再为每次检查分配新的对象。
+     * 只读结果不可修改，对其调用addError()、resolveWarning()等方法将抛出UnsupportedOperationException。
+     */
+    private boolean sharedPassEnabled;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile RuleCheckResult sharedPass;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile ResultCache annotatedCache;
 
     {
         this.init();
@@ -43,6 +110,42 @@ public abstract class Rule<T> {
         return engine.runAsync(this, target);
     }
 
+    /**
+     * 在调用线程上同步执行检查，供内联模式的引擎使用。
+     */
+    RuleCheckResult checkInline(T target, @NonNull RuleEngine engine) {
+        return engine.runInline(this, target);
+    }
+
+    /**
+     * 由引擎执行叶子规则时调用，默认调用check()。需要依据引擎的设置调整检查方式的规则可以重写该方法。
+     * 经过缓存时同样调用该方法加载结果，不记录通过信息的引擎加载的结果单独缓存
+     */
+    RuleCheckResult checkWith(T target, @NonNull RuleEngine engine) {
+        return this.check(target);
+    }
+
+    /**
+     * 等价键。RuleEngine开启去重时，同一次执行中类型相同且等价键相等（按equals）的规则被视为同一个规则，只执行一次。
+     * 默认返回null，表示只有同一个规则实例才被视为相同。参数化的规则可以重写该方法，例如返回其阈值。
+     */
+    public Object getEquivalenceKey() {
+        return null;
+    }
+
+    /**
+     * 读取本次执行的上下文中的事实，同一次执行中每个事实只计算一次。不在引擎的执行中，或引擎未开启上下文时，直接计算
+     */
+    protected <V> V fact(@NonNull RuleContext.Key<? super T, V> key, T target) {
+        RuleContext context = RuleContext.current();
+        return context == null ? key.load(target) : context.get(key, target);
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        this.sharedPass = null;
+    }
+
     @SuppressWarnings("unchecked")
     public SerialRuleSet<T> and(@NonNull Rule<T> other) {
         return new SerialRuleSet<>(this, other);
@@ -53,6 +156,30 @@ public abstract class Rule<T> {
         return new SerialRuleSet<>(RuleSet.Operator.OR, this, other);
     }
 
+    /**
+     * 以keyExtractor从目标中提取的键缓存该规则的检查结果
+     */
+    public CachedRule<T> cached(@NonNull Function<? super T, ?> keyExtractor) {
+        return new CachedRule<>(this, keyExtractor);
+    }
+
+    /**
+     * 以keyExtractor从目标中提取的键缓存该规则的检查结果
+     *
+     * @param maximumSize 最多缓存的结果数量
+     * @param ttl         缓存项的存活时间，为null时永不过期
+     */
+    public CachedRule<T> cached(@NonNull Function<? super T, ?> keyExtractor, int maximumSize, Duration ttl) {
+        return new CachedRule<>(this, keyExtractor, maximumSize, ttl);
+    }
+
+    /**
+     * 由表达式创建规则，如：Rule.expression(Order.class, "amount &lt; 1000")。详见ExpressionRule
+     */
+    public static <U> ExpressionRule<U> expression(@NonNull Class<U> type, @NonNull String expression) {
+        return new ExpressionRule<>(type, expression);
+    }
+
     public static <U> SerialRuleSet<U> serial(Rule<U>... rules) {
         return new SerialRuleSet<>(rules);
     }
@@ -91,6 +218,9 @@ public abstract class Rule<T> {
     }
 
     protected RuleCheckResult pass() {
+        if (this.sharedPassEnabled) {
+            return this.getSharedPass();
+        }
         return this.pass(null);
     }
 
@@ -126,6 +256,15 @@ public abstract class Rule<T> {
     }
 
 
+    private RuleCheckResult getSharedPass() {
+        RuleCheckResult result = this.sharedPass;
+        if (result == null) {
+            result = RuleCheckResult.readOnlyPassed(new RuleCheckResultDetail(this.name, null));
+            this.sharedPass = result;
+        }
+        return result;
+    }
+
     private void setRuleNameIfEmpty(RuleCheckResultDetail detail) {
         if (detail.getRuleName() == null || detail.getRuleName().isEmpty()) {
             detail.setRuleName(this.name);
@@ -135,31 +274,55 @@ public abstract class Rule<T> {
 
     //region 导出图片
     public void drawImage(@NonNull OutputStream outputStream) throws IOException {
-        this.imageGenerator.generate(this, outputStream);
+        ImageGenerator.INSTANCE.generate(this, outputStream);
     }
 
     public void drawImage(@NonNull String filePath) throws IOException {
-        this.imageGenerator.generate(this, filePath);
+        ImageGenerator.INSTANCE.generate(this, filePath);
     }
 
     public void drawImageWithResult(@NonNull RuleCheckResult result, @NonNull OutputStream outputStream) throws IOException {
-        this.imageGenerator.generateWithResult(this, result, outputStream);
+        ImageGenerator.INSTANCE.generateWithResult(this, result, outputStream);
     }
 
     public void drawImageWithResult(@NonNull RuleCheckResult result, @NonNull String filePath) throws IOException {
-        this.imageGenerator.generateWithResult(this, result, filePath);
+        ImageGenerator.INSTANCE.generateWithResult(this, result, filePath);
     }
     //endregion
 
-    private void init() {
-        Descriptor desc = this.getClass().getAnnotation(Descriptor.class);
-        if (desc != null) {
-            this.description = desc.value();
-            this.name = desc.name();
+    /**
+     * 获取标注了Cacheable注解的规则的结果缓存，未标注时返回null
+     */
+    ResultCache getAnnotatedCache() {
+        Cacheable cacheable = CACHEABLES.get(this.getClass());
+        if (cacheable == null) {
+            return null;
         }
-        if (this.name == null || this.name.isEmpty()) {
-            this.name = this.getClass().getSimpleName();
+        ResultCache cache = this.annotatedCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = this.annotatedCache;
+                if (cache == null) {
+                    cache = new ResultCache(cacheable.maximumSize(), TimeUnit.MILLISECONDS.toNanos(cacheable.ttlMillis()));
+                    this.annotatedCache = cache;
+                }
+            }
         }
+        return cache;
+    }
+
+    long getDeclaredTimeoutMillis() {
+        return DECLARED_TIMEOUTS.get(this.getClass());
+    }
+
+    String getDeclaredExecutor() {
+        return DECLARED_EXECUTORS.get(this.getClass());
+    }
+
+    private void init() {
+        String[] descriptor = DESCRIPTORS.get(this.getClass());
+        this.name = descriptor[0];
+        this.description = descriptor[1];
     }
 
     @Target(ElementType.TYPE)
@@ -168,5 +331,34 @@ public abstract class Rule<T> {
         String name() default "";
 
         String value();
+
+        /**
+         * 超时时间（毫秒），小于等于0时不限制。由RuleEngine执行时生效，超时后按引擎的超时策略生成超时结果，并取消该规则的执行
+         */
+        long timeoutMillis() default 0;
+
+        /**
+         * 执行器类别。由RuleEngine执行时，该规则在通过registerExecutor()注册的同名执行器上执行；为空或未注册时使用引擎的线程池
+         */
+        String executor() default "";
+    }
+
+    /**
+     * 标注在规则类上，由RuleEngine执行该规则时，以目标对象本身（按equals和hashCode）为键缓存检查结果。
+     * 缓存属于规则实例，在所有引擎之间共享。需要从目标中提取键时，请使用CachedRule或RuleEngine.cache()。
+     * 直接调用规则的check()方法不会使用缓存。
+     */
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Cacheable {
+        /**
+         * 最多缓存的结果数量
+         */
+        int maximumSize() default CachedRule.DEFAULT_MAXIMUM_SIZE;
+
+        /**
+         * 缓存项的存活时间（毫秒），小于等于0时永不过期
+         */
+        long ttlMillis() default 0;
     }
 }
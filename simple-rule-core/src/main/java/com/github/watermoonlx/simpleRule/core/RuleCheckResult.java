@@ -1,108 +1,213 @@
 package com.github.watermoonlx.simpleRule.core;
 
-import lombok.Getter;
-
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
-
-@Getter
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * 规则检查结果。
+ * 各类结果详情保存在不可变的DetailSequence中，combine()只需拼接序列，时间复杂度为O(1)，不会复制各个列表。
+ * 首次通过getter读取某类结果详情时，才将对应的序列转换为ArrayList；之后该类结果详情以该列表为准。
+ * 只读的检查结果可以被共享，其getter每次返回新的列表，调用修改方法将抛出UnsupportedOperationException。
+ * 按规则名称查找结果详情时，使用按需构建的、忽略大小写的索引，时间复杂度为O(1)。
+ * getter返回的列表（包括其子列表）被修改后，索引将在下次查找时重建；结果详情加入后不应再修改其规则名称。
+ */
 public class RuleCheckResult {
+    /**
+     * 共享的、不包含任何结果详情的通过结果
+     */
+    public static final RuleCheckResult PASS = new RuleCheckResult(newEmptySequences(), true);
+
+    private static final int ERRORS = 0;
+    private static final int WARNINGS = 1;
+    private static final int PASSEDS = 2;
+    private static final int RESOLVEDS = 3;
+    private static final int CATEGORY_COUNT = 4;
+
+    /**
+     * 依次为：错误、警告、已通过、已解决的警告
+     */
+    private final DetailSequence[] sequences;
+
+    /**
+     * 已通过getter暴露的列表，索引与sequences相同
+     */
+    private DetailList[] lists;
+
+    private final boolean readOnly;
+
+    /**
+     * 按规则名称建立的索引，索引与sequences相同，按需构建
+     */
+    private DetailIndex[] indexes;
+
+    /**
+     * 已解决、但尚未从警告列表中移除的警告。警告列表在下次被读取时一次性移除这些警告，避免每次解决警告都扫描列表。
+     */
+    private Set<RuleCheckResultDetail> pendingResolveds;
+
+    public RuleCheckResult() {
+        this(newEmptySequences(), false);
+    }
+
+    private RuleCheckResult(DetailSequence[] sequences, boolean readOnly) {
+        this.sequences = sequences;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * 创建一个只包含一条通过信息的只读结果
+     */
+    static RuleCheckResult readOnlyPassed(RuleCheckResultDetail passedInfo) {
+        DetailSequence[] sequences = newEmptySequences();
+        sequences[PASSEDS] = DetailSequence.of(passedInfo);
+        return new RuleCheckResult(sequences, true);
+    }
+
+    private static DetailSequence[] newEmptySequences() {
+        return new DetailSequence[]{DetailSequence.EMPTY, DetailSequence.EMPTY, DetailSequence.EMPTY, DetailSequence.EMPTY};
+    }
+
+    public boolean isReadOnly() {
+        return this.readOnly;
+    }
+
+    /**
+     * 是否只包含通过信息（包括不包含任何结果详情的情况）
+     */
+    boolean isPassOnly() {
+        return this.size(ERRORS) == 0 && this.size(WARNINGS) == 0 && this.size(RESOLVEDS) == 0;
+    }
+
     /**
      * 错误
      */
-    private final ArrayList<RuleCheckResultDetail> errors = new ArrayList<>();
+    public ArrayList<RuleCheckResultDetail> getErrors() {
+        return this.list(ERRORS);
+    }
 
     /**
      * 警告
      */
-    private final ArrayList<RuleCheckResultDetail> warnings = new ArrayList<>();
+    public ArrayList<RuleCheckResultDetail> getWarnings() {
+        return this.list(WARNINGS);
+    }
 
     /**
      * 已通过
      */
-    private final ArrayList<RuleCheckResultDetail> passeds = new ArrayList<>();
+    public ArrayList<RuleCheckResultDetail> getPasseds() {
+        return this.list(PASSEDS);
+    }
 
     /**
      * 已解决的警告
      */
-    private final ArrayList<RuleCheckResultDetail> resolveds = new ArrayList<>();
-
+    public ArrayList<RuleCheckResultDetail> getResolveds() {
+        return this.list(RESOLVEDS);
+    }
 
     public RuleCheckResult addError(RuleCheckResultDetail error) {
-        this.errors.add(error);
+        this.add(ERRORS, error);
         return this;
     }
 
     public RuleCheckResult addErrors(RuleCheckResultDetail... errors) {
-        this.errors.addAll(Arrays.asList(errors));
+        for (RuleCheckResultDetail error : errors) {
+            this.add(ERRORS, error);
+        }
         return this;
     }
 
     public RuleCheckResult addWarning(RuleCheckResultDetail warning) {
-        this.warnings.add(warning);
+        this.add(WARNINGS, warning);
         return this;
     }
 
     public RuleCheckResult addWarnings(RuleCheckResultDetail... warnings) {
-        this.warnings.addAll(Arrays.asList(warnings));
+        for (RuleCheckResultDetail warning : warnings) {
+            this.add(WARNINGS, warning);
+        }
         return this;
     }
 
     public RuleCheckResult addPassed(RuleCheckResultDetail passedInfo) {
-        this.passeds.add(passedInfo);
+        this.add(PASSEDS, passedInfo);
         return this;
     }
 
     public RuleCheckResult addPasseds(RuleCheckResultDetail... passedInfo) {
-        this.passeds.addAll(Arrays.asList(passedInfo));
+        for (RuleCheckResultDetail passed : passedInfo) {
+            this.add(PASSEDS, passed);
+        }
         return this;
     }
 
     public boolean hasError() {
-        return !this.errors.isEmpty();
+        return this.size(ERRORS) > 0;
     }
 
     public boolean hasError(String ruleName) {
-        return this.hasDetailFrom(this.errors, ruleName);
+        return this.findDetail(ERRORS, RuleCheckResultDetail.normalizeRuleName(ruleName)) != null;
     }
 
     public boolean hasError(Class<? extends Rule> cls) {
-        return this.hasError(cls.getSimpleName());
+        return this.findDetail(ERRORS, RuleCheckResultDetail.normalizedRuleNameOf(cls)) != null;
     }
 
     public boolean hasWarning() {
-        return !this.warnings.isEmpty();
+        return this.size(WARNINGS) > 0;
     }
 
     public boolean hasWarning(String ruleName) {
-        return this.hasDetailFrom(this.warnings, ruleName);
+        return this.findDetail(WARNINGS, RuleCheckResultDetail.normalizeRuleName(ruleName)) != null;
     }
 
     public boolean hasWarning(Class<? extends Rule> cls) {
-        return this.hasWarning(cls.getSimpleName());
+        return this.findDetail(WARNINGS, RuleCheckResultDetail.normalizedRuleNameOf(cls)) != null;
     }
 
     public RuleCheckResultDetail getError(String ruleName) {
-        return this.getDetail(this.errors, ruleName);
+        return this.findDetail(ERRORS, RuleCheckResultDetail.normalizeRuleName(ruleName));
     }
 
     public RuleCheckResultDetail getError(Class<? extends Rule> cls) {
-        return this.getError(cls.getSimpleName());
+        return this.findDetail(ERRORS, RuleCheckResultDetail.normalizedRuleNameOf(cls));
     }
 
     public RuleCheckResultDetail getWarning(String ruleName) {
-        return this.getDetail(this.warnings, ruleName);
+        return this.findDetail(WARNINGS, RuleCheckResultDetail.normalizeRuleName(ruleName));
     }
 
     public RuleCheckResultDetail getWarning(Class<? extends Rule> cls) {
-        return this.getWarning(cls.getSimpleName());
+        return this.findDetail(WARNINGS, RuleCheckResultDetail.normalizedRuleNameOf(cls));
     }
 
     public void resolveWarning(RuleCheckResultDetail warning) {
-        if (this.warnings.remove(warning)) {
-            this.resolveds.add(warning);
+        if (warning == null || this.size(WARNINGS) == 0) {
+            return;
+        }
+        this.checkWritable();
+        if (this.pendingResolveds != null && this.pendingResolveds.contains(warning)) {
+            return;
+        }
+        ArrayList<RuleCheckResultDetail> bucket = this.index(WARNINGS).get(RuleCheckResultDetail.normalizeRuleName(warning.getRuleName()));
+        if (bucket != null && removeByIdentity(bucket, warning)) {
+            if (this.pendingResolveds == null) {
+                this.pendingResolveds = Collections.newSetFromMap(new IdentityHashMap<>());
+            }
+            this.pendingResolveds.add(warning);
+            this.add(RESOLVEDS, warning);
+        } else if (this.list(WARNINGS).remove(warning)) {
+            // 规则名称在建立索引后被修改过，退回到扫描列表
+            this.invalidateIndex(WARNINGS);
+            this.add(RESOLVEDS, warning);
         }
     }
 
@@ -117,53 +222,271 @@ public class RuleCheckResult {
     }
 
     public void resolveAllWarnings() {
-        if (this.warnings.isEmpty())
+        if (this.size(WARNINGS) == 0)
             return;
 
-        Iterator<RuleCheckResultDetail> iterator = this.warnings.iterator();
-        while (iterator.hasNext()) {
-            this.resolveds.add(iterator.next());
-            iterator.remove();
-        }
+        DetailSequence warnings = this.sequence(WARNINGS);
+        this.clear(WARNINGS);
+        this.addAll(RESOLVEDS, warnings);
     }
 
     /**
      * 该方法将返回一个新的RuleCheckResult，不会修改结合的两个对象本身。
      */
     public RuleCheckResult combine(RuleCheckResult other) {
-        RuleCheckResult total = new RuleCheckResult();
+        DetailSequence[] total = new DetailSequence[CATEGORY_COUNT];
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            total[i] = other == null ? this.sequence(i) : this.sequence(i).concat(other.sequence(i));
+        }
+        return new RuleCheckResult(total, false);
+    }
+
+    /**
+     * 创建一个可写的深副本。各结果详情对象也被复制，之后修改任意一方的结果或其中的结果详情都不会影响另一方；负载对象本身不会被复制
+     */
+    RuleCheckResult deepCopy() {
+        DetailSequence[] total = new DetailSequence[CATEGORY_COUNT];
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            total[i] = this.sequence(i).copyDetails();
+        }
+        return new RuleCheckResult(total, false);
+    }
+
+    //region 序列与列表的维护
+
+    /**
+     * 获取某类结果详情的快照。若对应的列表已暴露，则复制该列表，以免之后对列表的修改影响其他结果。
+     */
+    private DetailSequence sequence(int category) {
+        ArrayList<RuleCheckResultDetail> list = this.lists == null ? null : this.lists[category];
+        return list != null ? DetailSequence.copyOf(this.list(category)) : this.sequences[category];
+    }
+
+    private ArrayList<RuleCheckResultDetail> list(int category) {
+        ArrayList<RuleCheckResultDetail> list = this.rawList(category);
+        if (category == WARNINGS && this.pendingResolveds != null && !this.pendingResolveds.isEmpty()) {
+            list.removeIf(this.pendingResolveds::contains);
+            this.pendingResolveds.clear();
+            if (this.indexes != null && this.indexes[WARNINGS] != null) {
+                // 索引建立时已排除这些警告，移除后无需重建
+                this.indexes[WARNINGS].version = ((DetailList) list).version();
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 获取某类结果详情的列表，不移除已解决的警告
+     */
+    private ArrayList<RuleCheckResultDetail> rawList(int category) {
+        if (this.readOnly) {
+            return this.sequences[category].toArrayList();
+        }
+        if (this.lists == null) {
+            this.lists = new DetailList[CATEGORY_COUNT];
+        }
+        DetailList list = this.lists[category];
+        if (list == null) {
+            list = this.sequences[category].addTo(new DetailList(this.sequences[category].size()));
+            this.lists[category] = list;
+        }
+        return list;
+    }
+
+    private int size(int category) {
+        ArrayList<RuleCheckResultDetail> list = this.lists == null ? null : this.lists[category];
+        if (list == null) {
+            return this.sequences[category].size();
+        }
+        if (category == WARNINGS && this.pendingResolveds != null) {
+            return list.size() - this.pendingResolveds.size();
+        }
+        return list.size();
+    }
 
-        total.errors.addAll(this.errors);
-        total.warnings.addAll(this.warnings);
-        total.passeds.addAll(this.passeds);
-        total.resolveds.addAll(this.resolveds);
+    private void add(int category, RuleCheckResultDetail detail) {
+        this.checkWritable();
+        this.invalidateIndex(category);
+        ArrayList<RuleCheckResultDetail> list = this.lists == null ? null : this.lists[category];
+        if (list != null) {
+            list.add(detail);
+        } else {
+            this.sequences[category] = this.sequences[category].append(detail);
+        }
+    }
 
-        if (other != null) {
-            total.errors.addAll(other.errors);
-            total.warnings.addAll(other.warnings);
-            total.passeds.addAll(other.passeds);
-            total.resolveds.addAll(other.resolveds);
+    private void addAll(int category, DetailSequence details) {
+        this.checkWritable();
+        this.invalidateIndex(category);
+        ArrayList<RuleCheckResultDetail> list = this.lists == null ? null : this.lists[category];
+        if (list != null) {
+            list.addAll(details.toArrayList());
+        } else {
+            this.sequences[category] = this.sequences[category].concat(details);
+        }
+    }
+
+    private void clear(int category) {
+        this.checkWritable();
+        this.invalidateIndex(category);
+        if (category == WARNINGS && this.pendingResolveds != null) {
+            this.pendingResolveds.clear();
+        }
+        ArrayList<RuleCheckResultDetail> list = this.lists == null ? null : this.lists[category];
+        if (list != null) {
+            list.clear();
+        } else {
+            this.sequences[category] = DetailSequence.EMPTY;
+        }
+    }
+    private void checkWritable() {
+        if (this.readOnly) {
+            throw new UnsupportedOperationException("只读的检查结果不可修改");
+        }
+    }
+    //endregion
+
+    //region 按规则名称索引
+    private RuleCheckResultDetail findDetail(int category, String normalizedRuleName) {
+        if (this.size(category) == 0) {
+            return null;
+        }
+        ArrayList<RuleCheckResultDetail> bucket = this.index(category).get(normalizedRuleName);
+        return bucket == null || bucket.isEmpty() ? null : bucket.get(0);
+    }
+
+    private Map<String, ArrayList<RuleCheckResultDetail>> index(int category) {
+        if (this.indexes == null) {
+            this.indexes = new DetailIndex[CATEGORY_COUNT];
+        }
+        DetailIndex index = this.indexes[category];
+        if (this.readOnly) {
+            if (index == null) {
+                index = new DetailIndex(this.sequences[category].toArrayList(), null, 0);
+                this.indexes[category] = index;
+            }
+            return index.map;
+        }
+        DetailList list = (DetailList) this.rawList(category);
+        // 列表在外部被修改过，需要重建索引
+        if (index == null || index.version != list.version()) {
+            index = new DetailIndex(list, category == WARNINGS ? this.pendingResolveds : null, list.version());
+            this.indexes[category] = index;
         }
+        return index.map;
+    }
 
-        return total;
+    private void invalidateIndex(int category) {
+        if (this.indexes != null) {
+            this.indexes[category] = null;
+        }
     }
 
-    private boolean hasDetailFrom(List<RuleCheckResultDetail> details, String ruleName) {
-        for (RuleCheckResultDetail detail : details) {
-            if (detail.isFrom(ruleName)) {
+    private static boolean removeByIdentity(ArrayList<RuleCheckResultDetail> details, RuleCheckResultDetail detail) {
+        for (int i = 0; i < details.size(); i++) {
+            if (details.get(i) == detail) {
+                details.remove(i);
                 return true;
             }
         }
         return false;
     }
 
-    private RuleCheckResultDetail getDetail(List<RuleCheckResultDetail> details, String ruleName) {
-        for (RuleCheckResultDetail detail : details) {
-            if (detail.isFrom(ruleName)) {
-                return detail;
+    /**
+     * 规则名称（忽略大小写）到结果详情的索引，同名的结果详情按原顺序保存
+     */
+    private static class DetailIndex {
+        private final Map<String, ArrayList<RuleCheckResultDetail>> map = new HashMap<>();
+        /**
+         * 建立索引时列表的修改次数
+         */
+        private int version;
+
+        private DetailIndex(ArrayList<RuleCheckResultDetail> details, Set<RuleCheckResultDetail> excludes, int version) {
+            for (RuleCheckResultDetail detail : details) {
+                if (excludes != null && excludes.contains(detail)) {
+                    continue;
+                }
+                String key = RuleCheckResultDetail.normalizeRuleName(detail.getRuleName());
+                this.map.computeIfAbsent(key, k -> new ArrayList<>(1)).add(detail);
+            }
+            this.version = version;
+        }
+    }
+
+    /**
+     * 通过getter暴露的列表，记录自身被修改的次数，包括不改变长度的set()
+     */
+    private static final class DetailList extends ArrayList<RuleCheckResultDetail> {
+        private static final long serialVersionUID = 1L;
+
+        private int sets;
+
+        private DetailList(int initialCapacity) {
+            super(initialCapacity);
+        }
+
+        /**
+         * 修改次数。modCount不包括set()，因此另外计数
+         */
+        private int version() {
+            return this.modCount + this.sets;
+        }
+
+        @Override
+        public RuleCheckResultDetail set(int index, RuleCheckResultDetail element) {
+            this.sets++;
+            return super.set(index, element);
+        }
+
+        /**
+         * ArrayList的子列表的set()直接修改底层数组，不经过本列表的set()，因此包装一层以记录set()
+         */
+        @Override
+        public List<RuleCheckResultDetail> subList(int fromIndex, int toIndex) {
+            return new SubList(super.subList(fromIndex, toIndex));
+        }
+
+        /**
+         * 子列表。增删元素由ArrayList的子列表完成，已计入本列表的modCount
+         */
+        private final class SubList extends AbstractList<RuleCheckResultDetail> implements RandomAccess {
+            private final List<RuleCheckResultDetail> delegate;
+
+            private SubList(List<RuleCheckResultDetail> delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public RuleCheckResultDetail get(int index) {
+                return this.delegate.get(index);
+            }
+
+            @Override
+            public int size() {
+                return this.delegate.size();
+            }
+
+            @Override
+            public RuleCheckResultDetail set(int index, RuleCheckResultDetail element) {
+                DetailList.this.sets++;
+                return this.delegate.set(index, element);
+            }
+
+            @Override
+            public void add(int index, RuleCheckResultDetail element) {
+                this.delegate.add(index, element);
+                this.modCount++;
+            }
+
+            @Override
+            public RuleCheckResultDetail remove(int index) {
+                RuleCheckResultDetail removed = this.delegate.remove(index);
+                this.modCount++;
+                return removed;
             }
         }
-        return null;
     }
+    //endregion
 
 }
@@ -11,7 +11,7 @@ import lombok.Setter;
 @AllArgsConstructor
 public class RuleCheckResultDetail {
     /**
-     * 产生该结果的规则名称
+     * 产生该结果的规则名称。结果详情加入RuleCheckResult后不应再修改，否则按规则名称查找时可能找不到该结果详情
      */
     private String ruleName;
 
@@ -29,12 +29,61 @@ public class RuleCheckResultDetail {
         this(ruleName, message, null);
     }
 
+    /**
+     * 复制该结果详情，负载对象本身不会被复制
+     */
+    RuleCheckResultDetail copy() {
+        return new RuleCheckResultDetail(this.ruleName, this.message, this.payload);
+    }
+
+    /**
+     * 规则类的简单类名，按类缓存，避免每次调用getSimpleName()
+     */
+    private static final ClassValue<String> RULE_NAMES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return type.getSimpleName();
+        }
+    };
+
+    private static final ClassValue<String> NORMALIZED_RULE_NAMES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return normalizeRuleName(RULE_NAMES.get(type));
+        }
+    };
+
     public boolean isFrom(String ruleName) {
         return this.ruleName.equalsIgnoreCase(ruleName);
     }
 
     public boolean isFrom(Class<? extends Rule> cls) {
-        return this.isFrom(cls.getSimpleName());
+        return this.isFrom(RULE_NAMES.get(cls));
+    }
+
+    /**
+     * 规范化规则名称，两个名称规范化后相等，当且仅当它们通过equalsIgnoreCase()比较相等
+     */
+    static String normalizeRuleName(String ruleName) {
+        if (ruleName == null) {
+            return null;
+        }
+        char[] chars = null;
+        for (int i = 0; i < ruleName.length(); i++) {
+            char c = ruleName.charAt(i);
+            char normalized = Character.toLowerCase(Character.toUpperCase(c));
+            if (normalized != c) {
+                if (chars == null) {
+                    chars = ruleName.toCharArray();
+                }
+                chars[i] = normalized;
+            }
+        }
+        return chars == null ? ruleName : new String(chars);
+    }
+
+    static String normalizedRuleNameOf(Class<?> cls) {
+        return NORMALIZED_RULE_NAMES.get(cls);
     }
 
     @SuppressWarnings("unchecked")
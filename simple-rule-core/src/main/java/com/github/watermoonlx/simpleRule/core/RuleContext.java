@@ -0,0 +1,140 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 单次执行的上下文，在RuleEngine开启上下文后，由引擎为每次执行创建，规则树中的所有规则共享。
+ * 上下文以类型化的Key保存由目标对象计算出的事实（如标准化的地址、解析后的日期、风险评分），每个事实在一次执行中只计算一次，
+ * 并行分支同时请求同一事实时，只有一个线程计算，其余线程等待其结果。
+ * <p>
+ * 规则在check()中通过Rule.fact()读取事实；不在引擎的执行中时（如直接调用check()），事实直接计算，不会被缓存。
+ * <pre>
+ * static final RuleContext.Key&lt;Order, Address&gt; ADDRESS = RuleContext.key("address", o -&gt; normalize(o.getAddress()));
+ *
+ * public RuleCheckResult check(Order order) {
+ *     Address address = this.fact(ADDRESS, order);
+ *     ...
+ * }
+ * </pre>
+ */
+public final class RuleContext {
+
+    private static final ThreadLocal<RuleContext> CURRENT = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<Key<?, ?>, CompletableFuture<Object>> facts = new ConcurrentHashMap<>();
+
+    RuleContext() {
+    }
+
+    /**
+     * 创建一个事实的Key。Key按实例区分，通常声明为静态常量
+     *
+     * @param name   名称，仅用于调试
+     * @param loader 由目标对象计算事实的函数
+     */
+    public static <T, V> Key<T, V> key(@NonNull String name, @NonNull Function<? super T, ? extends V> loader) {
+        return new Key<>(name, loader);
+    }
+
+    /**
+     * 当前线程正在执行的规则所属的上下文，不在引擎的执行中或引擎未开启上下文时返回null
+     */
+    public static RuleContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 获取事实，尚未计算时使用key的计算函数由target计算。计算失败时不缓存，下次获取时重新计算
+     */
+    @SuppressWarnings("unchecked")
+    public <T, V> V get(@NonNull Key<T, V> key, T target) {
+        CompletableFuture<Object> fact = this.facts.get(key);
+        if (fact == null) {
+            CompletableFuture<Object> placeholder = new CompletableFuture<>();
+            fact = this.facts.putIfAbsent(key, placeholder);
+            if (fact == null) {
+                V value;
+                try {
+                    value = key.load(target);
+                } catch (Throwable e) {
+                    this.facts.remove(key, placeholder);
+                    placeholder.completeExceptionally(e);
+                    throw e;
+                }
+                placeholder.complete(value);
+                return value;
+            }
+        }
+        try {
+            return (V) fact.join();
+        } catch (CompletionException e) {
+            // 其他线程计算失败时，抛出原始异常
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 获取已计算完成的事实，尚未计算或正在计算时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V getIfPresent(@NonNull Key<?, V> key) {
+        CompletableFuture<Object> fact = this.facts.get(key);
+        return fact != null && fact.isDone() && !fact.isCompletedExceptionally() ? (V) fact.join() : null;
+    }
+
+    /**
+     * 将上下文设为当前线程的上下文，返回之前的上下文，供exit()恢复
+     */
+    static RuleContext enter(RuleContext context) {
+        RuleContext previous = CURRENT.get();
+        CURRENT.set(context);
+        return previous;
+    }
+
+    static void exit(RuleContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * 事实的Key
+     *
+     * @param <T> 目标类型
+     * @param <V> 事实的类型
+     */
+    public static final class Key<T, V> {
+        @Getter
+        private final String name;
+        private final Function<? super T, ? extends V> loader;
+
+        private Key(String name, Function<? super T, ? extends V> loader) {
+            this.name = name;
+            this.loader = loader;
+        }
+
+        V load(T target) {
+            return this.loader.apply(target);
+        }
+
+        @Override
+        public String toString() {
+            return "RuleContext.Key(" + this.name + ")";
+        }
+    }
+}
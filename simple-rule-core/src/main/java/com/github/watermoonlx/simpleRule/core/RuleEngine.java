@@ -1,71 +1,1354 @@
 package com.github.watermoonlx.simpleRule.core;
 
 import lombok.AllArgsConstructor;
-import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-@NoArgsConstructor
-@AllArgsConstructor
 public class RuleEngine {
 
+    private static final RuleListener[] NO_LISTENERS = new RuleListener[0];
+
     private Executor pool = ForkJoinPool.commonPool();
+    private ExecutionMode mode = ExecutionMode.ASYNC;
+    /**
+     * 批量检查时每个分块包含的目标数量，小于等于0时根据线程池的并行度自动计算
+     */
+    private int batchChunkSize = 0;
+    /**
+     * 是否记录通过信息。关闭后，只包含通过信息的叶子规则结果将被替换为共享的RuleCheckResult.PASS，检查结果中不再包含通过信息。
+     * 需要导出带执行结果的流程图时，应保持开启。
+     */
+    private boolean recordPasseds = true;
+    /**
+     * 已注册的监听器。写时复制，执行时只读取一次数组引用；没有监听器时不产生任何计时和回调开销
+     */
+    private volatile RuleListener[] listeners = NO_LISTENERS;
+    /**
+     * 通过cache()配置的结果缓存，以规则实例为键。写时复制
+     */
+    private volatile Map<Rule<?>, CachedRule<?>> caches = Collections.emptyMap();
+    /**
+     * 是否对同一次执行中重复出现的规则去重，默认关闭。
+     * 开启后，同一次执行中同一个规则实例（或等价键相同的同类规则，见Rule.getEquivalenceKey()）对同一目标只执行一次，
+     * 其结果在该规则出现的每个位置复用；并行分支中同时请求同一规则时共享同一个Future。
+     * 共享的执行不会因为某个使用者被短路取消而被取消。
+     */
+    private boolean deduplicate = false;
+    /**
+     * 本次执行中各规则的结果，只存在于为单次执行创建的引擎副本上
+     */
+    private ConcurrentHashMap<Object, CompletableFuture<RuleCheckResult>> evaluationResults;
+    /**
+     * 是否为每次执行创建RuleContext，默认关闭。开启后，规则可以通过Rule.fact()在同一次执行中共享由目标计算出的事实
+     */
+    private boolean contextEnabled = false;
+    /**
+     * 本次执行的上下文，只存在于为单次执行创建的引擎副本上
+     */
+    private RuleContext context;
+    /**
+     * 通过setRuleTimeout()配置的各规则超时（纳秒），以规则实例为键。写时复制
+     */
+    private volatile Map<Rule<?>, Long> ruleTimeouts = Collections.emptyMap();
+    /**
+     * 叶子规则的默认超时（纳秒），小于等于0时不限制
+     */
+    private long defaultRuleTimeoutNanos = 0;
+    private TimeoutPolicy timeoutPolicy = TimeoutPolicy.ERROR;
+    /**
+     * 是否以可中断的方式执行叶子规则，使取消能够中断正在执行的规则。只在带截止时间执行时创建的引擎副本上开启
+     */
+    private boolean interruptOnCancel = false;
+    /**
+     * 通过registerExecutor()注册的各类别执行器，以类别名称为键。写时复制
+     */
+    private volatile Map<String, Bulkhead> bulkheads = Collections.emptyMap();
+    /**
+     * 通过setRuleExecutor()为各规则指定的执行器类别，以规则实例为键，优先于Rule.Descriptor中声明的类别。写时复制
+     */
+    private volatile Map<Rule<?>, String> ruleExecutors = Collections.emptyMap();
+
+    public RuleEngine() {
+    }
+
+    public RuleEngine(@NonNull Executor pool) {
+        this.pool = pool;
+    }
+
+    public RuleEngine(@NonNull Executor pool, @NonNull ExecutionMode mode) {
+        this.pool = pool;
+        this.mode = mode;
+    }
+
+    /**
+     * 创建一个内联执行的引擎：串行规则集和叶子规则在调用线程上同步执行，只有ParallelRuleSet的子规则才会提交到线程池，
+     * 尚未被线程池取走的子规则由等待结果的线程自己执行。
+     */
+    public static RuleEngine inline() {
+        return new RuleEngine(ForkJoinPool.commonPool(), ExecutionMode.INLINE);
+    }
+
+    /**
+     * 创建一个为每个规则使用一个虚拟线程的引擎，适用于执行阻塞I/O的规则。需要Java 21及以上版本。
+     *
+     * @throws UnsupportedOperationException 当前运行环境不支持虚拟线程
+     */
+    public static RuleEngine virtualThreads() {
+        return new RuleEngine(VirtualThreads.newExecutor());
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreads.isSupported();
+    }
+
+    /**
+     * 将规则树编译为不可变的执行计划。执行计划在编译时固定了规则树的结构，之后对规则集的修改不会影响已编译的计划。
+     */
+    public <T> CompiledRule<T> compile(@NonNull Rule<T> rule) {
+        return new CompiledRule<>(rule, this);
+    }
 
     public <T> RuleCheckResult run(@NonNull Rule<T> rule, @NonNull T target) {
-        return runAsync(rule, target).join();
+        if (this.mode == ExecutionMode.INLINE) {
+            return rule.checkInline(target, this);
+        }
+        return rule.checkAsync(target, this).join();
+    }
+
+    /**
+     * 在截止时间内执行规则。超过截止时间仍未完成时，返回按超时策略生成的超时结果，并取消尚未完成的工作，不再阻塞调用方。
+     * 内联模式下，整个规则树将在线程池中执行，以便调用方能够按时返回。
+     */
+    public <T> RuleCheckResult run(@NonNull Rule<T> rule, @NonNull T target, @NonNull Duration deadline) {
+        return this.runAsync(rule, target, deadline).join();
+    }
+
+    public <T> CompletableFuture<RuleCheckResult> runAsync(@NonNull Rule<T> rule, @NonNull T target, @NonNull Duration deadline) {
+        RuleEngine scope = this.copy();
+        scope.interruptOnCancel = true;
+        CompletableFuture<RuleCheckResult> future = this.mode == ExecutionMode.INLINE
+                ? scope.interruptible(this.pool, () -> rule.checkInline(target, scope))
+                : rule.checkAsync(target, scope);
+        return scope.withTimeout(future, rule, deadline.toNanos());
+    }
+
+    /**
+     * 执行规则并记录本次执行的时间线，用于分析嵌套规则集中的耗时瓶颈。
+     * 跟踪只作用于本次执行，引擎上已注册的监听器照常收到回调。
+     */
+    public <T> ExecutionTrace trace(@NonNull Rule<T> rule, @NonNull T target) {
+        ExecutionTrace.Recorder recorder = new ExecutionTrace.Recorder();
+        RuleEngine tracingEngine = this.copy();
+        tracingEngine.addListener(recorder);
+        RuleCheckResult result = tracingEngine.run(rule, target);
+        return recorder.toTrace(rule, result);
     }
 
     public <T> CompletableFuture<RuleCheckResult> runAsync(@NonNull Rule<T> rule, @NonNull T target) {
-        return CompletableFuture.supplyAsync(() -> rule.check(target), this.pool);
+        if (this.deduplicate || this.contextEnabled) {
+            RuleEngine scope = this.evaluationScope();
+            return scope.isEvaluationScoped()
+                    ? scope.shareAsync(rule, () -> scope.startLeaf(rule, target))
+                    : scope.startLeaf(rule, target);
+        }
+        return this.startLeaf(rule, target);
+    }
+
+    private <T> CompletableFuture<RuleCheckResult> startLeaf(Rule<T> rule, T target) {
+        if (this.mode == ExecutionMode.INLINE) {
+            return completedOrFailed(() -> this.checkLeafTimed(rule, target));
+        }
+        // 配置了缓存的异步规则按普通规则执行，以便复用同步的缓存逻辑
+        if (rule instanceof AsyncRule && !this.hasCache(rule)) {
+            return this.startAsyncLeaf((AsyncRule<T>) rule, target);
+        }
+        long timeout = this.timeoutNanos(rule, true);
+        if (timeout > 0) {
+            return this.withTimeout(this.interruptible(this.executorFor(rule), () -> this.checkLeaf(rule, target)), rule, timeout);
+        }
+        if (this.interruptOnCancel) {
+            return this.interruptible(this.executorFor(rule), () -> this.checkLeaf(rule, target));
+        }
+        return CompletableFuture.supplyAsync(() -> this.checkLeaf(rule, target), this.executorFor(rule));
+    }
+
+    /**
+     * 执行异步规则：直接组合规则返回的Future，等待期间不占用线程池中的线程。超时后取消该Future
+     */
+    private <T> CompletableFuture<RuleCheckResult> startAsyncLeaf(AsyncRule<T> rule, T target) {
+        CompletableFuture<RuleCheckResult> future = this.hasListeners()
+                ? this.observeAsync(rule, () -> this.checkAsyncUnobserved(rule, target))
+                : this.checkAsyncUnobserved(rule, target);
+        long timeout = this.timeoutNanos(rule, true);
+        return timeout > 0 ? this.withTimeout(future, rule, timeout) : future;
+    }
+
+    private <T> CompletableFuture<RuleCheckResult> checkAsyncUnobserved(AsyncRule<T> rule, T target) {
+        CompletableFuture<RuleCheckResult> future;
+        RuleContext previous = this.context == null ? null : RuleContext.enter(this.context);
+        try {
+            future = rule.checkAsync(target);
+        } catch (Throwable e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        } finally {
+            if (this.context != null) {
+                RuleContext.exit(previous);
+            }
+        }
+        if (future == null) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(new NullPointerException(rule.getName() + ".checkAsync()返回了null"));
+            return future;
+        }
+        if (!this.recordPasseds) {
+            CompletableFuture<RuleCheckResult> source = future;
+            CompletableFuture<RuleCheckResult> stripped = source.thenApply(result -> result != null && result.isPassOnly() ? RuleCheckResult.PASS : result);
+            // 取消返回的Future时，同样取消规则返回的Future
+            stripped.whenComplete((result, e) -> {
+                if (stripped.isCancelled()) {
+                    source.cancel(true);
+                }
+            });
+            return stripped;
+        }
+        return future;
     }
 
-    @SuppressWarnings("unchecked")
     public <T> CompletableFuture<RuleCheckResult> runAsync(@NonNull ParallelRuleSet<T> ruleSet, @NonNull T target) {
+        if (this.deduplicate || this.contextEnabled) {
+            RuleEngine scope = this.evaluationScope();
+            return scope.isEvaluationScoped()
+                    ? scope.shareAsync(ruleSet, () -> scope.startParallel(ruleSet, target))
+                    : scope.startParallel(ruleSet, target);
+        }
+        return this.startParallel(ruleSet, target);
+    }
+
+    private <T> CompletableFuture<RuleCheckResult> startParallel(ParallelRuleSet<T> ruleSet, T target) {
+        CompletableFuture<RuleCheckResult> future = this.hasListeners()
+                ? this.observeAsync(ruleSet, () -> this.forkAll(ruleSet, target))
+                : this.forkAll(ruleSet, target);
+        return this.withRuleTimeout(ruleSet, future);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<RuleCheckResult> forkAll(ParallelRuleSet<T> ruleSet, T target) {
         CompletableFuture<RuleCheckResult>[] resultFutures = ruleSet.getSubRules()
                 .stream()
-                .map(r -> r.checkAsync(target, this))
+                .map(r -> this.fork(r, target))
                 .toArray(CompletableFuture[]::new);
-        CompletableFuture<RuleCheckResult> combinedFuture = CompletableFuture.allOf(resultFutures)
-                .thenApply(i -> {
-                    RuleCheckResult combinedResult = new RuleCheckResult();
-                    for (CompletableFuture<RuleCheckResult> future : resultFutures) {
-                        RuleCheckResult result = future.join();
-                        combinedResult = combinedResult.combine(result);
-                        if (ruleSet.getOperator() == RuleSet.Operator.OR) {
-                            if (!result.hasError()) {
-                                return result;
-                            }
-                        }
-                    }
+        return this.joinParallel(resultFutures, ruleSet.getOperator(), ruleSet.isFailFast());
+    }
+
+    public <T> CompletableFuture<RuleCheckResult> runAsync(@NonNull SerialRuleSet<T> ruleSet, @NonNull T target) {
+        if (this.deduplicate || this.contextEnabled) {
+            RuleEngine scope = this.evaluationScope();
+            return scope.isEvaluationScoped()
+                    ? scope.shareAsync(ruleSet, () -> scope.startSerialObserved(ruleSet, target))
+                    : scope.startSerialObserved(ruleSet, target);
+        }
+        return this.startSerialObserved(ruleSet, target);
+    }
+
+    private <T> CompletableFuture<RuleCheckResult> startSerialObserved(SerialRuleSet<T> ruleSet, T target) {
+        if (this.mode == ExecutionMode.INLINE) {
+            return completedOrFailed(() -> this.serialInline(ruleSet, target));
+        }
+        CompletableFuture<RuleCheckResult> future = this.hasListeners()
+                ? this.observeAsync(ruleSet, () -> this.startSerial(ruleSet, target))
+                : this.startSerial(ruleSet, target);
+        return this.withRuleTimeout(ruleSet, future);
+    }
+
+    private <T> CompletableFuture<RuleCheckResult> startSerial(SerialRuleSet<T> ruleSet, T target) {
+        SerialFuture resultFuture = new SerialFuture();
+        AdaptiveOrder adaptiveOrder = ruleSet.getAdaptiveOrder();
+        // 执行顺序在本次执行开始时只读取一次，执行过程中其他执行触发的重新排序不影响本次执行
+        int[] order = adaptiveOrder == null ? null : adaptiveOrder.order();
+        this.chainSerial(ruleSet.getSubRules(), adaptiveOrder, order, 0, ruleSet.getOperator(), target, new RuleCheckResult(), resultFuture);
+        return resultFuture;
+    }
+
+    /**
+     * 依次执行串行规则集的子规则。每个子规则完成后，在其完成的线程上接着启动下一个子规则，
+     * 整个过程不会阻塞线程池中的任何线程，因此规则树的嵌套深度不受线程池大小的限制。
+     * 若resultFuture已被取消，则不再启动后续子规则，并取消正在执行的子规则。开启了自适应执行顺序时，按order的顺序执行并记录统计信息。
+     */
+    private <T> void chainSerial(List<Rule<T>> subRules, AdaptiveOrder adaptiveOrder, int[] order, int index, RuleSet.Operator operator, T target,
+                                 RuleCheckResult combinedResult, SerialFuture resultFuture) {
+        if (resultFuture.isDone()) {
+            return;
+        }
+        if (index >= subRules.size()) {
+            completeSerial(adaptiveOrder, resultFuture, combinedResult);
+            return;
+        }
+        int childIndex = order == null ? index : order[index];
+        long start = adaptiveOrder == null ? 0 : System.nanoTime();
+        CompletableFuture<RuleCheckResult> future;
+        try {
+            future = subRules.get(childIndex).checkAsync(target, this);
+        } catch (Throwable e) {
+            resultFuture.completeExceptionally(e);
+            return;
+        }
+        resultFuture.current = future;
+        if (resultFuture.isCancelled()) {
+            future.cancel(true);
+            return;
+        }
+        future.whenComplete((result, e) -> {
+            if (e != null) {
+                resultFuture.completeExceptionally(e);
+                return;
+            }
+            if (adaptiveOrder != null) {
+                adaptiveOrder.record(childIndex, System.nanoTime() - start, result);
+            }
+            RuleCheckResult newCombinedResult = combinedResult.combine(result);
+            if (operator == RuleSet.Operator.AND) {
+                if (result.hasError()) {
+                    completeSerial(adaptiveOrder, resultFuture, newCombinedResult);
+                    return;
+                }
+            } else {
+                if (!result.hasError()) {
+                    completeSerial(adaptiveOrder, resultFuture, result);
+                    return;
+                }
+            }
+            this.chainSerial(subRules, adaptiveOrder, order, index + 1, operator, target, newCombinedResult, resultFuture);
+        });
+    }
+
+    /**
+     * 完成串行规则集的执行。先更新自适应执行顺序的计数，保证调用方拿到结果时计数已经更新
+     */
+    private static void completeSerial(AdaptiveOrder adaptiveOrder, CompletableFuture<RuleCheckResult> resultFuture, RuleCheckResult result) {
+        if (adaptiveOrder != null) {
+            adaptiveOrder.completed();
+        }
+        resultFuture.complete(result);
+    }
+
+    /**
+     * 串行规则集的结果Future，记录正在执行的子规则。被取消时，同时取消正在执行的子规则
+     */
+    private static final class SerialFuture extends CompletableFuture<RuleCheckResult> {
+        private volatile CompletableFuture<RuleCheckResult> current;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            CompletableFuture<RuleCheckResult> current = this.current;
+            if (cancelled && current != null) {
+                current.cancel(mayInterruptIfRunning);
+            }
+            return cancelled;
+        }
+    }
+
+    //region 批量执行
+
+    /**
+     * 使用同一规则检查多个目标，结果按输入顺序返回。
+     * 目标被划分为若干分块，分别提交到线程池执行；每个分块内的规则树在同一线程上依次执行，并行规则集也不再提交到线程池。
+     * 规则树中实现了BatchRule的规则，对每个分块只调用一次checkAll()。
+     */
+    public <T> List<RuleCheckResult> runBatch(@NonNull Rule<T> rule, @NonNull List<T> targets) {
+        CompiledRule<T> compiled = this.compile(rule);
+        RuleCheckResult[] results = new RuleCheckResult[targets.size()];
+        this.runChunks(targets.size(), (from, to) -> compiled.checkChunk(targets, from, to, results));
+        return Arrays.asList(results);
+    }
+
+    public <T> List<RuleCheckResult> runBatch(@NonNull Rule<T> rule, @NonNull Collection<T> targets) {
+        return this.runBatch(rule, new ArrayList<>(targets));
+    }
+
+    public <T> RuleCheckResult[] runBatch(@NonNull Rule<T> rule, @NonNull T[] targets) {
+        return this.runBatch(rule, Arrays.asList(targets)).toArray(new RuleCheckResult[0]);
+    }
+
+    /**
+     * 将[0, count)划分为若干分块并行执行。第一个分块在调用线程上执行，其余分块提交到线程池。
+     */
+    private void runChunks(int count, ChunkTask task) {
+        if (count == 0) {
+            return;
+        }
+        int chunkSize = this.getBatchChunkSize(count);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = chunkSize; from < count; from += chunkSize) {
+            int start = from;
+            int end = Math.min(from + chunkSize, count);
+            futures.add(CompletableFuture.runAsync(() -> task.run(start, end), this.pool));
+        }
+        task.run(0, Math.min(chunkSize, count));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    private int getBatchChunkSize(int count) {
+        if (this.batchChunkSize > 0) {
+            return this.batchChunkSize;
+        }
+        int parallelism = this.pool instanceof ForkJoinPool
+                ? ((ForkJoinPool) this.pool).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        // 每个线程分到多个分块，以平衡各分块耗时不均的情况
+        int chunkCount = Math.max(1, parallelism * 4);
+        return Math.max(1, (count + chunkCount - 1) / chunkCount);
+    }
+
+    /**
+     * 以流的方式检查数量未知或无法全部放入内存的目标，结果按输入顺序产出。
+     * 目标在流被消费时才从源迭代器中读取，同时执行中的检查不超过maxInFlight个。关闭流将取消尚未完成的检查。
+     */
+    public <T> Stream<TargetCheckResult<T>> stream(@NonNull Rule<T> rule, @NonNull Iterator<? extends T> targets, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight必须大于0");
+        }
+        BoundedCheckIterator<T> iterator = new BoundedCheckIterator<>(this.compile(rule), targets, maxInFlight, this.pool);
+        Spliterator<TargetCheckResult<T>> spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(iterator::cancel);
+    }
+
+    public <T> Stream<TargetCheckResult<T>> stream(@NonNull Rule<T> rule, @NonNull Stream<? extends T> targets, int maxInFlight) {
+        return this.stream(rule, targets.iterator(), maxInFlight).onClose(targets::close);
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        void run(int from, int to);
+    }
+
+    /**
+     * 在批量执行的路径上，对多个目标执行叶子规则，结果与targets一一对应。
+     * 实现了BatchRule的规则只调用一次checkAll()；其他规则，以及配置了缓存的规则，逐个执行
+     */
+    @SuppressWarnings("unchecked")
+    <T> RuleCheckResult[] checkLeafAll(Rule<T> rule, List<T> targets) {
+        if (!(rule instanceof BatchRule) || this.hasCache(rule)) {
+            RuleCheckResult[] results = new RuleCheckResult[targets.size()];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = this.checkLeafTimed(rule, targets.get(i));
+            }
+            return results;
+        }
+        BatchRule<T> batchRule = (BatchRule<T>) rule;
+        if (this.hasListeners()) {
+            return this.observeAll(rule, targets.size(), () -> this.checkBatch(batchRule, rule, targets));
+        }
+        return this.checkBatch(batchRule, rule, targets);
+    }
+
+    private <T> RuleCheckResult[] checkBatch(BatchRule<T> batchRule, Rule<T> rule, List<T> targets) {
+        List<RuleCheckResult> checked = batchRule.checkAll(targets);
+        if (checked == null || checked.size() != targets.size()) {
+            throw new IllegalStateException(rule.getName() + ".checkAll()返回的结果数量与目标数量不一致");
+        }
+        RuleCheckResult[] results = checked.toArray(new RuleCheckResult[0]);
+        if (!this.recordPasseds) {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null && results[i].isPassOnly()) {
+                    results[i] = RuleCheckResult.PASS;
+                }
+            }
+        }
+        return results;
+    }
+    //endregion
+
+    //region 内联执行
+    <T> RuleCheckResult runInline(@NonNull Rule<T> rule, @NonNull T target) {
+        if (this.deduplicate || this.contextEnabled) {
+            RuleEngine scope = this.evaluationScope();
+            return scope.isEvaluationScoped()
+                    ? scope.shareInline(rule, () -> scope.checkLeafTimed(rule, target))
+                    : scope.checkLeafTimed(rule, target);
+        }
+        return this.checkLeafTimed(rule, target);
+    }
+
+    <T> RuleCheckResult runInline(@NonNull ParallelRuleSet<T> ruleSet, @NonNull T target) {
+        if (this.deduplicate || this.contextEnabled) {
+            RuleEngine scope = this.evaluationScope();
+            return scope.isEvaluationScoped()
+                    ? scope.shareInline(ruleSet, () -> scope.parallelInline(ruleSet, target))
+                    : scope.parallelInline(ruleSet, target);
+        }
+        return this.parallelInline(ruleSet, target);
+    }
+
+    private <T> RuleCheckResult parallelInline(ParallelRuleSet<T> ruleSet, T target) {
+        long timeout = this.timeoutNanos(ruleSet, false);
+        if (timeout > 0) {
+            return this.runWithTimeout(ruleSet, timeout, () -> this.parallelInlineObserved(ruleSet, target));
+        }
+        return this.parallelInlineObserved(ruleSet, target);
+    }
+
+    private <T> RuleCheckResult parallelInlineObserved(ParallelRuleSet<T> ruleSet, T target) {
+        if (this.hasListeners()) {
+            return this.observe(ruleSet, () -> this.checkParallelInline(ruleSet, target));
+        }
+        return this.checkParallelInline(ruleSet, target);
+    }
+
+    private <T> RuleCheckResult checkParallelInline(ParallelRuleSet<T> ruleSet, T target) {
+        List<Rule<T>> subRules = ruleSet.getSubRules();
+        return this.forkJoin(subRules.toArray(new Rule<?>[0]), i -> subRules.get(i).checkInline(target, this),
+                ruleSet.getOperator(), ruleSet.isFailFast());
+    }
+
+    <T> RuleCheckResult runInline(@NonNull SerialRuleSet<T> ruleSet, @NonNull T target) {
+        if (this.deduplicate || this.contextEnabled) {
+            RuleEngine scope = this.evaluationScope();
+            return scope.isEvaluationScoped()
+                    ? scope.shareInline(ruleSet, () -> scope.serialInline(ruleSet, target))
+                    : scope.serialInline(ruleSet, target);
+        }
+        return this.serialInline(ruleSet, target);
+    }
+
+    private <T> RuleCheckResult serialInline(SerialRuleSet<T> ruleSet, T target) {
+        long timeout = this.timeoutNanos(ruleSet, false);
+        if (timeout > 0) {
+            return this.runWithTimeout(ruleSet, timeout, () -> this.serialInlineObserved(ruleSet, target));
+        }
+        return this.serialInlineObserved(ruleSet, target);
+    }
+
+    private <T> RuleCheckResult serialInlineObserved(SerialRuleSet<T> ruleSet, T target) {
+        if (this.hasListeners()) {
+            return this.observe(ruleSet, () -> this.checkSerialInline(ruleSet, target));
+        }
+        return this.checkSerialInline(ruleSet, target);
+    }
+
+    private <T> RuleCheckResult checkSerialInline(SerialRuleSet<T> ruleSet, T target) {
+        AdaptiveOrder adaptiveOrder = ruleSet.getAdaptiveOrder();
+        if (adaptiveOrder != null) {
+            List<Rule<T>> subRules = ruleSet.getSubRules();
+            return adaptiveOrder.evaluate(i -> subRules.get(i).checkInline(target, this));
+        }
+        RuleCheckResult combinedResult = new RuleCheckResult();
+        for (Rule<T> subRule : ruleSet.getSubRules()) {
+            RuleCheckResult result = subRule.checkInline(target, this);
+            combinedResult = combinedResult.combine(result);
+            if (ruleSet.getOperator() == RuleSet.Operator.AND) {
+                if (result.hasError()) {
                     return combinedResult;
-                });
+                }
+            } else {
+                if (!result.hasError()) {
+                    return result;
+                }
+            }
+        }
+        return combinedResult;
+    }
+    //endregion
+
+    /**
+     * 执行叶子规则的检查。所有执行路径都通过该方法执行叶子规则。
+     */
+    <T> RuleCheckResult checkLeaf(Rule<T> rule, T target) {
+        RuleListener[] listeners = this.listeners;
+        if (listeners.length == 0) {
+            return this.checkLeafUnobserved(rule, target);
+        }
+        long start = notifyStart(listeners, rule);
+        RuleCheckResult result;
+        try {
+            result = this.checkLeafUnobserved(rule, target);
+        } catch (Throwable e) {
+            notifyFinish(listeners, rule, start, null, e);
+            throw e;
+        }
+        notifyFinish(listeners, rule, start, result, null);
+        return result;
+    }
+
+    private <T> RuleCheckResult checkLeafUnobserved(Rule<T> rule, T target) {
+        RuleCheckResult result = this.checkInContext(rule, target);
+        if (!this.recordPasseds && result != null && result.isPassOnly()) {
+            return RuleCheckResult.PASS;
+        }
+        return result;
+    }
+
+    /**
+     * 在同步执行的路径上执行叶子规则。若为该规则设置了超时，则在线程池中执行并最多等待超时时间
+     */
+    <T> RuleCheckResult checkLeafTimed(Rule<T> rule, T target) {
+        long timeout = this.timeoutNanos(rule, true);
+        if (timeout > 0) {
+            return this.runWithTimeout(rule, timeout, () -> this.checkLeaf(rule, target));
+        }
+        return this.checkLeaf(rule, target);
+    }
+
+    /**
+     * 在本次执行的上下文中执行叶子规则，使规则能够通过Rule.fact()读取上下文中的事实
+     */
+    private <T> RuleCheckResult checkInContext(Rule<T> rule, T target) {
+        RuleContext context = this.context;
+        if (context == null) {
+            return this.checkCached(rule, target);
+        }
+        RuleContext previous = RuleContext.enter(context);
+        try {
+            return this.checkCached(rule, target);
+        } finally {
+            RuleContext.exit(previous);
+        }
+    }
+
+    /**
+     * 执行叶子规则的check()方法。若为该规则配置了缓存，或规则类标注了Cacheable注解，则优先从缓存中获取结果
+     */
+    @SuppressWarnings("unchecked")
+    private <T> RuleCheckResult checkCached(Rule<T> rule, T target) {
+        Map<Rule<?>, CachedRule<?>> caches = this.caches;
+        if (!caches.isEmpty()) {
+            CachedRule<T> cachedRule = (CachedRule<T>) caches.get(rule);
+            if (cachedRule != null) {
+                return cachedRule.checkWith(target, this);
+            }
+        }
+        ResultCache annotatedCache = rule.getAnnotatedCache();
+        if (annotatedCache != null) {
+            return annotatedCache.get(ResultCache.keyFor(target, this.recordPasseds), () -> rule.checkWith(target, this));
+        }
+        return rule.checkWith(target, this);
+    }
+
+    /**
+     * 是否为该规则配置了缓存，或规则类标注了Cacheable注解
+     */
+    private boolean hasCache(Rule<?> rule) {
+        Map<Rule<?>, CachedRule<?>> caches = this.caches;
+        return (!caches.isEmpty() && caches.containsKey(rule)) || rule.getAnnotatedCache() != null;
+    }
+
+    /**
+     * 为叶子规则配置结果缓存：由该引擎执行该规则时，以keyExtractor从目标中提取的键缓存检查结果，不需要修改规则树。
+     * 返回的CachedRule可用于查看命中统计或清空缓存。
+     *
+     * @param maximumSize 最多缓存的结果数量
+     * @param ttl         缓存项的存活时间，为null时永不过期
+     */
+    public synchronized <T> CachedRule<T> cache(@NonNull Rule<T> rule, @NonNull Function<? super T, ?> keyExtractor, int maximumSize, Duration ttl) {
+        if (rule instanceof RuleSet) {
+            throw new IllegalArgumentException("只能为叶子规则配置缓存，规则集请使用CachedRule装饰");
+        }
+        CachedRule<T> cachedRule = new CachedRule<>(rule, keyExtractor, maximumSize, ttl);
+        Map<Rule<?>, CachedRule<?>> newCaches = new IdentityHashMap<>(this.caches);
+        newCaches.put(rule, cachedRule);
+        this.caches = newCaches;
+        return cachedRule;
+    }
+
+    public synchronized void removeCache(@NonNull Rule<?> rule) {
+        Map<Rule<?>, CachedRule<?>> newCaches = new IdentityHashMap<>(this.caches);
+        newCaches.remove(rule);
+        this.caches = newCaches.isEmpty() ? Collections.emptyMap() : newCaches;
+    }
+
+    /**
+     * 启动ParallelRuleSet的一个子规则。内联模式下，整个子规则树在线程池的一个线程上同步执行。
+     */
+    private <T> CompletableFuture<RuleCheckResult> fork(Rule<T> rule, T target) {
+        if (this.mode == ExecutionMode.INLINE) {
+            return CompletableFuture.supplyAsync(() -> rule.checkInline(target, this), this.executorFor(rule));
+        }
+        return rule.checkAsync(target, this);
+    }
+
+    /**
+     * 汇总并行执行的各子规则的结果。
+     * 对于OR运算符，任意一个子规则通过即完成，不再等待其余子规则；对于开启了快速失败的AND运算符，任意一个子规则产生错误即完成。
+     * 汇总结果的Future完成后，尚未执行完毕的子规则将被取消。
+     */
+    CompletableFuture<RuleCheckResult> joinParallel(CompletableFuture<RuleCheckResult>[] resultFutures, RuleSet.Operator operator, boolean failFast) {
+        CompletableFuture<RuleCheckResult> combinedFuture = new CompletableFuture<>();
+        if (resultFutures.length == 0) {
+            combinedFuture.complete(new RuleCheckResult());
+            return combinedFuture;
+        }
+        AtomicInteger remaining = new AtomicInteger(resultFutures.length);
+        for (CompletableFuture<RuleCheckResult> future : resultFutures) {
+            future.whenComplete((result, e) -> {
+                if (combinedFuture.isDone()) {
+                    return;
+                }
+                if (e != null) {
+                    combinedFuture.completeExceptionally(e);
+                    return;
+                }
+                if (operator == RuleSet.Operator.OR && !result.hasError()) {
+                    combinedFuture.complete(result);
+                    return;
+                }
+                if (operator == RuleSet.Operator.AND && failFast && result.hasError()) {
+                    combinedFuture.complete(combineCompleted(resultFutures));
+                    return;
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    combinedFuture.complete(combineCompleted(resultFutures));
+                }
+            });
+        }
+        combinedFuture.whenComplete((result, e) -> {
+            for (CompletableFuture<RuleCheckResult> future : resultFutures) {
+                future.cancel(false);
+            }
+        });
         return combinedFuture;
     }
 
-    public <T> CompletableFuture<RuleCheckResult> runAsync(@NonNull SerialRuleSet<T> ruleSet, @NonNull T target) {
-        return CompletableFuture.supplyAsync(() -> {
-            RuleCheckResult combinedResult = new RuleCheckResult();
-            for (Rule<T> subRule : ruleSet.getSubRules()) {
-                RuleCheckResult result = subRule.checkAsync(target, this).join();
-                combinedResult = combinedResult.combine(result);
-                if (ruleSet.getOperator() == RuleSet.Operator.AND) {
-                    if (result.hasError()) {
-                        return combinedResult;
-                    }
-                } else {
-                    if (!result.hasError()) {
-                        return result;
-                    }
+    /**
+     * 同步执行并行节点的各子规则并汇总结果，用于内联执行和执行计划。
+     * 各子规则先提交到执行器，当前线程在等待结果之前，从后往前执行其中尚未被线程池取走、且使用引擎线程池的子规则。
+     * 因此线程池的线程执行嵌套的并行规则集时，不会只占住线程等待排在自己后面的子规则，线程数有限时也不会因此死锁。
+     * 使用专用执行器的子规则只在其执行器上执行。
+     *
+     * @param body 执行第i个子规则
+     */
+    RuleCheckResult forkJoin(Rule<?>[] rules, IntFunction<RuleCheckResult> body, RuleSet.Operator operator, boolean failFast) {
+        InlineTask[] tasks = new InlineTask[rules.length];
+        boolean[] helpable = new boolean[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            int index = i;
+            tasks[i] = new InlineTask(() -> body.apply(index));
+        }
+        CompletableFuture<RuleCheckResult> combinedFuture = this.joinParallel(tasks, operator, failFast);
+        for (int i = 0; i < rules.length; i++) {
+            Executor executor = this.executorFor(rules[i]);
+            helpable[i] = executor == this.pool;
+            executor.execute(tasks[i]);
+        }
+        for (int i = tasks.length - 1; i >= 0 && !combinedFuture.isDone(); i--) {
+            if (helpable[i]) {
+                tasks[i].run();
+            }
+        }
+        try {
+            return combinedFuture.get();
+        } catch (InterruptedException e) {
+            // 超时导致的中断，取消尚未执行完毕的子规则
+            combinedFuture.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    /**
+     * 可以由线程池或等待结果的线程执行的子规则任务，只执行一次；已完成（包括被取消）时不再执行
+     */
+    private static final class InlineTask extends CompletableFuture<RuleCheckResult> implements Runnable {
+        private final Supplier<RuleCheckResult> body;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        InlineTask(Supplier<RuleCheckResult> body) {
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            if (this.isDone() || !this.started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                this.complete(this.body.get());
+            } catch (Throwable e) {
+                this.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * 按子规则的顺序，合并已正常完成的各子规则的结果。
+     */
+    private static RuleCheckResult combineCompleted(CompletableFuture<RuleCheckResult>[] resultFutures) {
+        RuleCheckResult combinedResult = new RuleCheckResult();
+        for (CompletableFuture<RuleCheckResult> future : resultFutures) {
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                combinedResult = combinedResult.combine(future.join());
+            }
+        }
+        return combinedResult;
+    }
+
+    //region 监听器
+    boolean hasListeners() {
+        return this.listeners.length != 0;
+    }
+
+    /**
+     * 同步执行规则集节点，并通知监听器
+     */
+    RuleCheckResult observe(Rule<?> rule, Supplier<RuleCheckResult> body) {
+        RuleListener[] listeners = this.listeners;
+        long start = notifyStart(listeners, rule);
+        RuleCheckResult result;
+        try {
+            result = body.get();
+        } catch (Throwable e) {
+            notifyFinish(listeners, rule, start, null, e);
+            throw e;
+        }
+        notifyFinish(listeners, rule, start, result, null);
+        return result;
+    }
+
+    /**
+     * 对多个目标同步执行同一个规则节点，并通知监听器：每个目标各有一次开始和结束回调，
+     * 耗时为整个节点的执行时间按目标数量平均分摊的值，使指标中的总耗时与节点实际的执行时间一致
+     */
+    RuleCheckResult[] observeAll(Rule<?> rule, int count, Supplier<RuleCheckResult[]> body) {
+        RuleListener[] listeners = this.listeners;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            long notified = notifyStart(listeners, rule);
+            if (i == 0) {
+                start = notified;
+            }
+        }
+        RuleCheckResult[] results;
+        try {
+            results = body.get();
+        } catch (Throwable e) {
+            long share = (System.nanoTime() - start) / Math.max(1, count);
+            for (int i = 0; i < count; i++) {
+                notifyFinishIn(listeners, rule, share, RuleOutcome.of(null, e), e);
+            }
+            throw e;
+        }
+        long share = (System.nanoTime() - start) / Math.max(1, results.length);
+        for (RuleCheckResult result : results) {
+            notifyFinishIn(listeners, rule, share, RuleOutcome.of(result, null), null);
+        }
+        return results;
+    }
+
+    /**
+     * 异步执行规则集节点，在实际执行的Future完成（包括被取消）时通知监听器
+     */
+    private CompletableFuture<RuleCheckResult> observeAsync(Rule<?> rule, Supplier<CompletableFuture<RuleCheckResult>> body) {
+        RuleListener[] listeners = this.listeners;
+        long start = notifyStart(listeners, rule);
+        CompletableFuture<RuleCheckResult> future;
+        try {
+            future = body.get();
+        } catch (Throwable e) {
+            notifyFinish(listeners, rule, start, null, e);
+            throw e;
+        }
+        // 先通知监听器再完成返回的Future，保证调用方拿到结果时回调已经发生；取消返回的Future时同时取消实际执行的Future
+        CompletableFuture<RuleCheckResult> observedFuture = new CompletableFuture<>();
+        future.whenComplete((result, e) -> {
+            notifyFinish(listeners, rule, start, result, e);
+            if (e != null) {
+                observedFuture.completeExceptionally(e);
+            } else {
+                observedFuture.complete(result);
+            }
+        });
+        observedFuture.whenComplete((result, e) -> {
+            if (observedFuture.isCancelled()) {
+                future.cancel(false);
+            }
+        });
+        return observedFuture;
+    }
+
+    private static long notifyStart(RuleListener[] listeners, Rule<?> rule) {
+        for (RuleListener listener : listeners) {
+            try {
+                listener.onStart(rule);
+            } catch (Throwable ignored) {
+                // 监听器的异常不影响规则的执行
+            }
+        }
+        return System.nanoTime();
+    }
+
+    private static void notifyFinish(RuleListener[] listeners, Rule<?> rule, long start, RuleCheckResult result, Throwable e) {
+        notifyFinishIn(listeners, rule, System.nanoTime() - start, RuleOutcome.of(result, e), e);
+    }
+
+    private static void notifyFinishIn(RuleListener[] listeners, Rule<?> rule, long duration, RuleOutcome outcome, Throwable e) {
+        for (RuleListener listener : listeners) {
+            try {
+                listener.onFinish(rule, duration, outcome, e);
+            } catch (Throwable ignored) {
+                // 监听器的异常不影响规则的执行
+            }
+        }
+    }
+
+    public synchronized void addListener(@NonNull RuleListener listener) {
+        RuleListener[] newListeners = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+        newListeners[newListeners.length - 1] = listener;
+        this.listeners = newListeners;
+    }
+
+    public synchronized boolean removeListener(@NonNull RuleListener listener) {
+        RuleListener[] current = this.listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                RuleListener[] newListeners = new RuleListener[current.length - 1];
+                System.arraycopy(current, 0, newListeners, 0, i);
+                System.arraycopy(current, i + 1, newListeners, i, current.length - i - 1);
+                this.listeners = newListeners.length == 0 ? NO_LISTENERS : newListeners;
+                return true;
+            }
+        }
+        return false;
+    }
+    //endregion
+
+    private static <U> CompletableFuture<U> completedOrFailed(Supplier<U> supplier) {
+        CompletableFuture<U> future = new CompletableFuture<>();
+        try {
+            future.complete(supplier.get());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    //region 超时
+    /**
+     * 获取规则的超时时间（纳秒），小于等于0表示不限制。
+     * 优先使用通过setRuleTimeout()配置的超时，其次为Rule.Descriptor中声明的超时；叶子规则最后使用引擎的默认超时
+     */
+    long timeoutNanos(Rule<?> rule, boolean leaf) {
+        Map<Rule<?>, Long> ruleTimeouts = this.ruleTimeouts;
+        if (!ruleTimeouts.isEmpty()) {
+            Long timeout = ruleTimeouts.get(rule);
+            if (timeout != null) {
+                return timeout;
+            }
+        }
+        long declaredMillis = rule.getDeclaredTimeoutMillis();
+        if (declaredMillis > 0) {
+            return TimeUnit.MILLISECONDS.toNanos(declaredMillis);
+        }
+        return leaf ? this.defaultRuleTimeoutNanos : 0;
+    }
+
+    /**
+     * 在线程池中执行body，并最多等待timeoutNanos。用于同步执行的路径
+     */
+    RuleCheckResult runWithTimeout(Rule<?> rule, long timeoutNanos, Supplier<RuleCheckResult> body) {
+        return this.withTimeout(this.interruptible(this.executorFor(rule), body), rule, timeoutNanos).join();
+    }
+
+    private CompletableFuture<RuleCheckResult> withRuleTimeout(Rule<?> rule, CompletableFuture<RuleCheckResult> future) {
+        long timeout = this.timeoutNanos(rule, false);
+        return timeout > 0 ? this.withTimeout(future, rule, timeout) : future;
+    }
+
+    /**
+     * 为规则节点的Future设置超时。超时后，先取消原Future，再以超时结果完成返回的Future，
+     * 保证调用方拿到超时结果时，剩余的工作已被取消；取消返回的Future时，同样取消原Future。
+     */
+    private CompletableFuture<RuleCheckResult> withTimeout(CompletableFuture<RuleCheckResult> future, Rule<?> rule, long timeoutNanos) {
+        if (future.isDone()) {
+            return future;
+        }
+        CompletableFuture<RuleCheckResult> timedFuture = new CompletableFuture<>();
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> timer = TimeoutScheduler.INSTANCE.schedule(() -> {
+            if (!timedFuture.isDone() && timedOut.compareAndSet(false, true)) {
+                RuleCheckResult timedOutResult = this.timedOutResult(rule, timeoutNanos);
+                future.cancel(true);
+                timedFuture.complete(timedOutResult);
+            }
+        }, timeoutNanos, TimeUnit.NANOSECONDS);
+        future.whenComplete((result, e) -> {
+            timer.cancel(false);
+            if (e != null) {
+                if (timedOut.get()) {
+                    // 超时导致的取消，返回的Future随后以超时结果完成
+                    return;
                 }
+                timedFuture.completeExceptionally(e);
+            } else {
+                timedFuture.complete(result);
+            }
+        });
+        timedFuture.whenComplete((result, e) -> {
+            if (timedFuture.isCancelled()) {
+                future.cancel(true);
             }
-            return combinedResult;
         });
+        return timedFuture;
+    }
+
+    /**
+     * 在线程池中执行body。返回的Future被取消时，将中断正在执行body的线程，使阻塞在I/O或等待上的规则能够及时退出。
+     * body结束后清除该中断标记，以免影响线程池中该线程执行的下一个任务
+     */
+    private CompletableFuture<RuleCheckResult> interruptible(Executor executor, Supplier<RuleCheckResult> body) {
+        CompletableFuture<RuleCheckResult> future = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            try {
+                future.complete(body.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }, null);
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        executor.execute(() -> {
+            task.run();
+            if (task.isCancelled()) {
+                Thread.interrupted();
+            }
+        });
+        return future;
+    }
+
+    private RuleCheckResult timedOutResult(Rule<?> rule, long timeoutNanos) {
+        RuleCheckResultDetail detail = new RuleCheckResultDetail(rule.getName(), "规则执行超时", Duration.ofNanos(timeoutNanos));
+        RuleCheckResult result = new RuleCheckResult();
+        if (this.timeoutPolicy == TimeoutPolicy.WARNING) {
+            result.addWarning(detail);
+        } else {
+            result.addError(detail);
+        }
+        return result;
+    }
+
+    /**
+     * 为规则节点（叶子规则或规则集）设置超时，覆盖Rule.Descriptor中声明的超时。timeout为null时移除该设置
+     */
+    public synchronized void setRuleTimeout(@NonNull Rule<?> rule, Duration timeout) {
+        Map<Rule<?>, Long> newTimeouts = new IdentityHashMap<>(this.ruleTimeouts);
+        if (timeout == null) {
+            newTimeouts.remove(rule);
+        } else {
+            newTimeouts.put(rule, timeout.toNanos());
+        }
+        this.ruleTimeouts = newTimeouts.isEmpty() ? Collections.emptyMap() : newTimeouts;
+    }
+
+    /**
+     * 设置叶子规则的默认超时，为null时不限制
+     */
+    public void setDefaultRuleTimeout(Duration timeout) {
+        this.defaultRuleTimeoutNanos = timeout == null ? 0 : timeout.toNanos();
+    }
+
+    public void setTimeoutPolicy(@NonNull TimeoutPolicy timeoutPolicy) {
+        this.timeoutPolicy = timeoutPolicy;
+    }
+
+    /**
+     * 检查超时使用的调度线程，所有引擎共享，按需创建
+     */
+    private static final class TimeoutScheduler {
+        private static final ScheduledThreadPoolExecutor INSTANCE = create();
+
+        private static ScheduledThreadPoolExecutor create() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "simple-rule-timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
+    //endregion
+
+    //region 执行器
+    /**
+     * 获取执行规则节点使用的执行器。优先使用通过setRuleExecutor()指定的类别，其次为Rule.Descriptor中声明的类别；
+     * 未指定类别，或该类别尚未注册执行器时，使用引擎的线程池
+     */
+    Executor executorFor(Rule<?> rule) {
+        Map<String, Bulkhead> bulkheads = this.bulkheads;
+        if (bulkheads.isEmpty()) {
+            return this.pool;
+        }
+        Map<Rule<?>, String> ruleExecutors = this.ruleExecutors;
+        String category = ruleExecutors.isEmpty() ? null : ruleExecutors.get(rule);
+        if (category == null) {
+            category = rule.getDeclaredExecutor();
+        }
+        Bulkhead bulkhead = bulkheads.get(category);
+        return bulkhead == null ? this.pool : bulkhead;
+    }
+
+    /**
+     * 为一类规则注册专用的执行器。属于该类别的规则只在该执行器上执行，与其他规则的线程相互隔离。
+     * 已存在同名类别时将被替换。返回的Bulkhead可用于查看排队深度等指标
+     */
+    public synchronized Bulkhead registerExecutor(@NonNull String category, @NonNull Executor executor) {
+        if (category.isEmpty()) {
+            throw new IllegalArgumentException("category不能为空");
+        }
+        Bulkhead bulkhead = new Bulkhead(category, executor);
+        Map<String, Bulkhead> newBulkheads = new HashMap<>(this.bulkheads);
+        newBulkheads.put(category, bulkhead);
+        this.bulkheads = newBulkheads;
+        return bulkhead;
+    }
+
+    /**
+     * 为一类规则注册一个固定线程数的专用执行器。执行器使用守护线程，空闲的线程会自动退出
+     */
+    public Bulkhead registerExecutor(@NonNull String category, int threads) {
+        return this.registerExecutor(category, Bulkhead.newFixedThreadPool(category, threads));
+    }
+
+    /**
+     * 指定规则节点所属的执行器类别，覆盖Rule.Descriptor中声明的类别。category为null时移除该设置
+     */
+    public synchronized void setRuleExecutor(@NonNull Rule<?> rule, String category) {
+        Map<Rule<?>, String> newRuleExecutors = new IdentityHashMap<>(this.ruleExecutors);
+        if (category == null) {
+            newRuleExecutors.remove(rule);
+        } else {
+            newRuleExecutors.put(rule, category);
+        }
+        this.ruleExecutors = newRuleExecutors.isEmpty() ? Collections.emptyMap() : newRuleExecutors;
+    }
+
+    /**
+     * 获取指定类别的执行器，未注册时返回null
+     */
+    public Bulkhead getBulkhead(@NonNull String category) {
+        return this.bulkheads.get(category);
+    }
+
+    /**
+     * 所有已注册的执行器，以类别名称为键
+     */
+    public Map<String, Bulkhead> getBulkheads() {
+        return Collections.unmodifiableMap(this.bulkheads);
+    }
+    //endregion
+
+    //region 去重
+    /**
+     * 获取本次执行使用的引擎。开启去重或上下文时，为每次执行创建一个保存该次执行中各规则结果和上下文的引擎副本；否则返回引擎本身
+     */
+    RuleEngine evaluationScope() {
+        if (this.evaluationResults != null || this.context != null || (!this.deduplicate && !this.contextEnabled)) {
+            return this;
+        }
+        RuleEngine engine = this.copy();
+        if (this.deduplicate) {
+            engine.evaluationResults = new ConcurrentHashMap<>();
+        }
+        if (this.contextEnabled) {
+            engine.context = new RuleContext();
+        }
+        return engine;
+    }
+
+    boolean isEvaluationScoped() {
+        return this.evaluationResults != null;
+    }
+
+    /**
+     * 异步执行规则节点，同一次执行中已开始执行的相同规则直接复用其结果。
+     * 每个使用者得到独立的依赖Future，取消它不会取消共享的执行。
+     */
+    private CompletableFuture<RuleCheckResult> shareAsync(Rule<?> rule, Supplier<CompletableFuture<RuleCheckResult>> body) {
+        Object key = evaluationKey(rule);
+        CompletableFuture<RuleCheckResult> shared = this.evaluationResults.get(key);
+        if (shared == null) {
+            CompletableFuture<RuleCheckResult> placeholder = new CompletableFuture<>();
+            shared = this.evaluationResults.putIfAbsent(key, placeholder);
+            if (shared == null) {
+                shared = placeholder;
+                CompletableFuture<RuleCheckResult> future;
+                try {
+                    future = body.get();
+                } catch (Throwable e) {
+                    placeholder.completeExceptionally(e);
+                    throw e;
+                }
+                future.whenComplete((result, e) -> {
+                    if (e != null) {
+                        placeholder.completeExceptionally(e);
+                    } else {
+                        placeholder.complete(result);
+                    }
+                });
+            }
+        }
+        return shared.thenApply(Function.identity());
+    }
+
+    /**
+     * 同步执行规则节点，同一次执行中已开始执行的相同规则直接复用其结果；若其仍在其他线程上执行，则等待其完成
+     */
+    RuleCheckResult shareInline(Rule<?> rule, Supplier<RuleCheckResult> body) {
+        Object key = evaluationKey(rule);
+        CompletableFuture<RuleCheckResult> shared = this.evaluationResults.get(key);
+        if (shared == null) {
+            CompletableFuture<RuleCheckResult> placeholder = new CompletableFuture<>();
+            shared = this.evaluationResults.putIfAbsent(key, placeholder);
+            if (shared == null) {
+                RuleCheckResult result;
+                try {
+                    result = body.get();
+                } catch (Throwable e) {
+                    placeholder.completeExceptionally(e);
+                    throw e;
+                }
+                placeholder.complete(result);
+                return result;
+            }
+        }
+        return shared.join();
+    }
+
+    private static Object evaluationKey(Rule<?> rule) {
+        Object key = rule.getEquivalenceKey();
+        return key == null ? rule : new EquivalenceKey(rule.getClass(), key);
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class EquivalenceKey {
+        private final Class<?> type;
+        private final Object key;
+    }
+
+    boolean isDeduplicate() {
+        return this.deduplicate;
+    }
+
+    public void setDeduplicate(boolean deduplicate) {
+        this.deduplicate = deduplicate;
+    }
+
+    boolean isContextEnabled() {
+        return this.contextEnabled;
+    }
+
+    public void setContextEnabled(boolean contextEnabled) {
+        this.contextEnabled = contextEnabled;
+    }
+    //endregion
+
+    /**
+     * 复制引擎的配置和已注册的监听器
+     */
+    private RuleEngine copy() {
+        RuleEngine engine = new RuleEngine(this.pool, this.mode);
+        engine.batchChunkSize = this.batchChunkSize;
+        engine.recordPasseds = this.recordPasseds;
+        engine.listeners = this.listeners;
+        engine.caches = this.caches;
+        engine.deduplicate = this.deduplicate;
+        engine.contextEnabled = this.contextEnabled;
+        engine.ruleTimeouts = this.ruleTimeouts;
+        engine.defaultRuleTimeoutNanos = this.defaultRuleTimeoutNanos;
+        engine.timeoutPolicy = this.timeoutPolicy;
+        engine.interruptOnCancel = this.interruptOnCancel;
+        engine.bulkheads = this.bulkheads;
+        engine.ruleExecutors = this.ruleExecutors;
+        return engine;
+    }
+
+    Executor getThreadPool() {
+        return this.pool;
+    }
+
+    boolean isRecordPasseds() {
+        return this.recordPasseds;
     }
 
     public void setThreadPool(@NonNull Executor executor) {
         this.pool = executor;
     }
+
+    public void setBatchChunkSize(int batchChunkSize) {
+        this.batchChunkSize = batchChunkSize;
+    }
+
+    public void setRecordPasseds(boolean recordPasseds) {
+        this.recordPasseds = recordPasseds;
+    }
+
+    public void setExecutionMode(@NonNull ExecutionMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * 执行模式
+     */
+    public static enum ExecutionMode {
+        /**
+         * 每个规则都作为一个异步任务提交到线程池执行（默认）
+         */
+        ASYNC,
+        /**
+         * 串行规则集和叶子规则在调用线程上同步执行，不创建任何Future；只有ParallelRuleSet的子规则才会提交到线程池，
+         * 等待子规则的线程会执行其中尚未被线程池取走的子规则，嵌套的并行规则集不会耗尽线程池
+         */
+        INLINE
+    }
+
+    /**
+     * 规则超时后生成的结果
+     */
+    public static enum TimeoutPolicy {
+        /**
+         * 生成一条错误（默认）
+         */
+        ERROR,
+        /**
+         * 生成一条警告
+         */
+        WARNING
+    }
 }
@@ -0,0 +1,26 @@
+package com.github.watermoonlx.simpleRule.core;
+
+/**
+ * 规则执行监听器。通过RuleEngine.addListener()注册后，引擎执行的每个规则节点（叶子规则及规则集）开始和结束时都会收到回调。
+ * 回调可能在线程池的任意线程上并发发生，实现必须是线程安全的，且应尽量轻量。监听器抛出的异常将被忽略，不影响规则的执行。
+ * 被短路取消、尚未开始执行的子规则不会收到任何回调。
+ */
+public interface RuleListener {
+
+    /**
+     * 规则节点开始执行
+     */
+    default void onStart(Rule<?> rule) {
+    }
+
+    /**
+     * 规则节点执行结束
+     *
+     * @param rule          规则节点
+     * @param durationNanos 从开始到结束经过的时间（纳秒）。对于异步执行的规则集，包括等待子规则调度的时间
+     * @param outcome       执行结果分类
+     * @param error         执行过程中抛出的异常；没有异常时为null
+     */
+    default void onFinish(Rule<?> rule, long durationNanos, RuleOutcome outcome, Throwable error) {
+    }
+}
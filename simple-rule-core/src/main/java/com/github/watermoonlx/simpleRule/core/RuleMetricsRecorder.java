@@ -0,0 +1,191 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内置的无锁指标记录器。按规则名称统计各执行结果的次数，并以固定分桶的直方图记录执行耗时。
+ * 所有计数均使用LongAdder，适合在高并发下持续记录，可作为监控和告警的数据来源。
+ * <pre>
+ * RuleMetricsRecorder recorder = new RuleMetricsRecorder();
+ * engine.addListener(recorder);
+ * ...
+ * RuleMetricsRecorder.RuleMetrics metrics = recorder.getMetrics("AmountMustLessThan1000");
+ * long p99 = metrics.getPercentileNanos(0.99);
+ * </pre>
+ */
+public class RuleMetricsRecorder implements RuleListener {
+
+    /**
+     * 直方图各分桶的上界（纳秒，包含），从1微秒到10秒按1-2-5递增；超过最后一个上界的耗时计入最后一个溢出分桶
+     */
+    private static final long[] BUCKET_BOUNDS_NANOS = createBucketBounds();
+
+    private final ConcurrentHashMap<String, RuleMetrics> metricsByName = new ConcurrentHashMap<>();
+
+    @Override
+    public void onFinish(Rule<?> rule, long durationNanos, RuleOutcome outcome, Throwable error) {
+        String name = rule.getName();
+        RuleMetrics metrics = this.metricsByName.get(name);
+        if (metrics == null) {
+            metrics = this.metricsByName.computeIfAbsent(name, RuleMetrics::new);
+        }
+        metrics.record(durationNanos, outcome);
+    }
+
+    /**
+     * 获取指定规则名称的指标，尚未记录时返回null
+     */
+    public RuleMetrics getMetrics(String ruleName) {
+        return this.metricsByName.get(ruleName);
+    }
+
+    /**
+     * 获取所有规则的指标，以规则名称为键。返回的Map是只读视图，会反映之后新记录的规则
+     */
+    public Map<String, RuleMetrics> getAllMetrics() {
+        return Collections.unmodifiableMap(this.metricsByName);
+    }
+
+    /**
+     * 清空所有已记录的指标
+     */
+    public void reset() {
+        this.metricsByName.clear();
+    }
+
+    /**
+     * 直方图各分桶的上界（纳秒）。getBucketCounts()返回的数组比该数组多一个元素，最后一个元素为溢出分桶
+     */
+    public static long[] getBucketBoundsNanos() {
+        return BUCKET_BOUNDS_NANOS.clone();
+    }
+
+    private static long[] createBucketBounds() {
+        long[] bounds = new long[22];
+        long base = TimeUnit.MICROSECONDS.toNanos(1);
+        for (int i = 0; i < bounds.length; i += 3) {
+            bounds[i] = base;
+            if (i + 1 < bounds.length) {
+                bounds[i + 1] = base * 2;
+            }
+            if (i + 2 < bounds.length) {
+                bounds[i + 2] = base * 5;
+            }
+            base *= 10;
+        }
+        return bounds;
+    }
+
+    private static int bucketIndex(long durationNanos) {
+        int low = 0;
+        int high = BUCKET_BOUNDS_NANOS.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (durationNanos <= BUCKET_BOUNDS_NANOS[mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 单个规则名称的指标
+     */
+    public static class RuleMetrics {
+        private final String ruleName;
+        private final LongAdder[] outcomeCounts = newAdders(RuleOutcome.values().length);
+        private final LongAdder[] bucketCounts = newAdders(BUCKET_BOUNDS_NANOS.length + 1);
+        private final LongAdder totalNanos = new LongAdder();
+
+        RuleMetrics(String ruleName) {
+            this.ruleName = ruleName;
+        }
+
+        void record(long durationNanos, RuleOutcome outcome) {
+            this.outcomeCounts[outcome.ordinal()].increment();
+            this.bucketCounts[bucketIndex(durationNanos)].increment();
+            this.totalNanos.add(durationNanos);
+        }
+
+        public String getRuleName() {
+            return this.ruleName;
+        }
+
+        /**
+         * 执行总次数
+         */
+        public long getCount() {
+            long count = 0;
+            for (LongAdder adder : this.outcomeCounts) {
+                count += adder.sum();
+            }
+            return count;
+        }
+
+        public long getCount(RuleOutcome outcome) {
+            return this.outcomeCounts[outcome.ordinal()].sum();
+        }
+
+        public long getTotalNanos() {
+            return this.totalNanos.sum();
+        }
+
+        public long getMeanNanos() {
+            long count = this.getCount();
+            return count == 0 ? 0 : this.getTotalNanos() / count;
+        }
+
+        /**
+         * 各分桶的计数，与getBucketBoundsNanos()一一对应，最后一个元素为溢出分桶
+         */
+        public long[] getBucketCounts() {
+            long[] counts = new long[this.bucketCounts.length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = this.bucketCounts[i].sum();
+            }
+            return counts;
+        }
+
+        /**
+         * 估算指定分位的耗时，返回该分位所在分桶的上界（纳秒）。落在溢出分桶时返回Long.MAX_VALUE，没有记录时返回0
+         *
+         * @param percentile 分位，取值范围(0, 1]，例如0.99
+         */
+        public long getPercentileNanos(double percentile) {
+            if (percentile <= 0 || percentile > 1) {
+                throw new IllegalArgumentException("percentile必须在(0, 1]范围内");
+            }
+            long[] counts = this.getBucketCounts();
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_NANOS.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return BUCKET_BOUNDS_NANOS[i];
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        private static LongAdder[] newAdders(int size) {
+            LongAdder[] adders = new LongAdder[size];
+            for (int i = 0; i < size; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 单个规则节点的执行结果分类
+ */
+public enum RuleOutcome {
+    /**
+     * 检查通过，且没有警告
+     */
+    PASSED,
+    /**
+     * 检查通过，但包含警告
+     */
+    WARNING,
+    /**
+     * 检查不通过
+     */
+    ERROR,
+    /**
+     * 检查过程中抛出了异常
+     */
+    EXCEPTION,
+    /**
+     * 检查被取消，例如所在的并行规则集已被其他子规则短路
+     */
+    CANCELLED;
+
+    public static RuleOutcome of(RuleCheckResult result, Throwable e) {
+        if (e != null) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            return cause instanceof CancellationException ? CANCELLED : EXCEPTION;
+        }
+        if (result == null) {
+            return PASSED;
+        }
+        if (result.hasError()) {
+            return ERROR;
+        }
+        return result.hasWarning() ? WARNING : PASSED;
+    }
+}
@@ -1,5 +1,13 @@
 package com.github.watermoonlx.simpleRule.core;
 
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -7,6 +15,22 @@ import java.util.concurrent.CompletableFuture;
  */
 public class SerialRuleSet<T> extends RuleSet<T> {
 
+    /**
+     * 自适应执行顺序，默认关闭。
+     * 开启后，引擎会统计每个子规则的耗时和决定结果（AND下为产生错误，OR下为通过）的比例，
+     * 并定期重新排列子规则，使廉价且大概率短路的子规则先执行。检查结果中各子规则结果的顺序与实际执行顺序一致。
+     * 只应在子规则之间相互独立时开启；需要保持位置的子规则可通过pin()固定。
+     */
+    @Getter
+    private boolean adaptive;
+    /**
+     * 自适应模式下，每执行多少次规则集重新计算一次执行顺序
+     */
+    @Getter
+    private int reorderInterval = 1000;
+    private final Set<Rule<T>> pinnedRules = Collections.newSetFromMap(new IdentityHashMap<>());
+    private volatile AdaptiveOrder adaptiveOrder;
+
     public SerialRuleSet(Operator operator, Rule<T>... rules) {
         super(operator, rules);
     }
@@ -15,8 +39,96 @@ public class SerialRuleSet<T> extends RuleSet<T> {
         super(rules);
     }
 
+    @Override
+    public void register(Rule<T> rule) {
+        super.register(rule);
+        this.adaptiveOrder = null;
+    }
+
+    /**
+     * 注册一个在自适应模式下保持位置的子规则
+     */
+    public void registerPinned(@NonNull Rule<T> rule) {
+        this.register(rule);
+        this.pin(rule);
+    }
+
+    /**
+     * 固定一个已注册的子规则。自适应模式下，被固定的子规则保持其注册位置，
+     * 其余子规则不会越过它被重新排列，因此它之前的子规则始终在它之前执行，之后的子规则始终在它之后执行。
+     */
+    public synchronized void pin(@NonNull Rule<T> rule) {
+        this.pinnedRules.add(rule);
+        this.adaptiveOrder = null;
+    }
+
+    public synchronized boolean isPinned(@NonNull Rule<T> rule) {
+        return this.pinnedRules.contains(rule);
+    }
+
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+        this.adaptiveOrder = null;
+    }
+
+    public void setReorderInterval(int reorderInterval) {
+        if (reorderInterval <= 0) {
+            throw new IllegalArgumentException("reorderInterval必须大于0");
+        }
+        this.reorderInterval = reorderInterval;
+        this.adaptiveOrder = null;
+    }
+
+    /**
+     * 当前的执行顺序。未开启自适应模式时即为注册顺序
+     */
+    public List<Rule<T>> getEffectiveOrder() {
+        List<Rule<T>> subRules = this.getSubRules();
+        AdaptiveOrder order = this.getAdaptiveOrder();
+        if (order == null) {
+            return new ArrayList<>(subRules);
+        }
+        List<Rule<T>> rules = new ArrayList<>(subRules.size());
+        for (int index : order.order()) {
+            rules.add(subRules.get(index));
+        }
+        return rules;
+    }
+
+    /**
+     * 获取自适应执行顺序，未开启自适应模式时返回null。子规则发生变化后，之前的统计信息将被丢弃
+     */
+    AdaptiveOrder getAdaptiveOrder() {
+        if (!this.adaptive) {
+            return null;
+        }
+        AdaptiveOrder order = this.adaptiveOrder;
+        if (order == null || order.size() != this.getSubRules().size()) {
+            order = this.newAdaptiveOrder();
+            this.adaptiveOrder = order;
+        }
+        return order;
+    }
+
+    /**
+     * 以当前的子规则和固定情况创建一份新的自适应执行顺序
+     */
+    synchronized AdaptiveOrder newAdaptiveOrder() {
+        List<Rule<T>> subRules = this.getSubRules();
+        boolean[] pinned = new boolean[subRules.size()];
+        for (int i = 0; i < pinned.length; i++) {
+            pinned[i] = this.pinnedRules.contains(subRules.get(i));
+        }
+        return new AdaptiveOrder(this.getOperator(), pinned, this.reorderInterval);
+    }
+
     @Override
     public CompletableFuture<RuleCheckResult> checkAsync(T target, RuleEngine engine) {
         return engine.runAsync(this, target);
     }
+
+    @Override
+    RuleCheckResult checkInline(T target, RuleEngine engine) {
+        return engine.runInline(this, target);
+    }
 }
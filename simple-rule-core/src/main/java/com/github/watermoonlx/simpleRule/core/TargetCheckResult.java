@@ -0,0 +1,23 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 检查目标及其检查结果
+ *
+ * @param <T> 待检测的目标类型
+ */
+@Getter
+@AllArgsConstructor
+public class TargetCheckResult<T> {
+    /**
+     * 检查目标
+     */
+    private final T target;
+
+    /**
+     * 检查结果
+     */
+    private final RuleCheckResult result;
+}
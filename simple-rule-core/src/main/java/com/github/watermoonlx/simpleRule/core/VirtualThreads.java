@@ -0,0 +1,21 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 虚拟线程支持。
+ * 该类是Java 8的版本，不支持虚拟线程。Java 21及以上版本将使用Multi-Release JAR中META-INF/versions/21下的同名类。
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return false;
+    }
+
+    static Executor newExecutor() {
+        throw new UnsupportedOperationException("虚拟线程需要Java 21及以上版本");
+    }
+}
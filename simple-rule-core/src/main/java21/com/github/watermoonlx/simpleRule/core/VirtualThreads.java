@@ -0,0 +1,22 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程支持。
+ * 该类是Java 21的版本，每个任务都在一个新的虚拟线程上执行。
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return true;
+    }
+
+    static Executor newExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
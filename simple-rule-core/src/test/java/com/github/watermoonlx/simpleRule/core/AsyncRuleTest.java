@@ -0,0 +1,117 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncRuleTest {
+
+    private static final ScheduledExecutorService CLIENT = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "async-client");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 模拟调用异步客户端的规则：延迟一段时间后在客户端线程上完成
+     */
+    public static class RemoteRule extends AsyncRule<String> {
+        final AtomicInteger count = new AtomicInteger();
+        private final long millis;
+        private final boolean pass;
+        volatile CompletableFuture<RuleCheckResult> lastFuture;
+
+        public RemoteRule(String name, long millis, boolean pass) {
+            this.millis = millis;
+            this.pass = pass;
+            this.setName(name);
+        }
+
+        @Override
+        public CompletableFuture<RuleCheckResult> checkAsync(String target) {
+            this.count.incrementAndGet();
+            CompletableFuture<RuleCheckResult> future = new CompletableFuture<>();
+            CLIENT.schedule(() -> future.complete(this.pass ? this.pass() : this.error("不通过")), this.millis, TimeUnit.MILLISECONDS);
+            this.lastFuture = future;
+            return future;
+        }
+    }
+
+    @Test
+    public void testManyConcurrentChecksOnSmallPool() {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            List<Rule<String>> rules = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                rules.add(new RemoteRule("remote" + i, 50, true));
+            }
+            ParallelRuleSet<String> ruleSet = new ParallelRuleSet<>();
+            rules.forEach(ruleSet::register);
+            RuleEngine engine = new RuleEngine(pool);
+
+            long start = System.nanoTime();
+            RuleCheckResult result = engine.run(ruleSet, "A");
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // 若每个规则阻塞一个线程，至少需要100 * 50 / 2 = 2500毫秒
+            Assertions.assertTrue(elapsed < 1000);
+            Assertions.assertEquals(100, result.getPasseds().size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testComposition() {
+        RemoteRule remote1 = new RemoteRule("remote1", 5, true);
+        RemoteRule remote2 = new RemoteRule("remote2", 5, false);
+        RemoteRule skipped = new RemoteRule("skipped", 5, true);
+        SerialRuleSet<String> ruleSet = Rule.serial(Rule.parallel(remote1, new RuleEngineTest.KeyedCountingRule("local")), remote2, skipped);
+
+        for (RuleEngine engine : new RuleEngine[]{new RuleEngine(), RuleEngine.inline()}) {
+            RuleCheckResult result = engine.run(ruleSet, "A");
+            Assertions.assertTrue(result.hasError("remote2"));
+            Assertions.assertEquals(2, result.getPasseds().size());
+        }
+        Assertions.assertEquals(2, remote2.count.get());
+        Assertions.assertEquals(0, skipped.count.get());
+
+        // 直接调用check()时阻塞等待
+        Assertions.assertFalse(remote1.check("A").hasError());
+    }
+
+    @Test
+    public void testTimeoutAndListener() {
+        for (boolean recordPasseds : new boolean[]{true, false}) {
+            RemoteRule slow = new RemoteRule("slow", 5000, true);
+            RuleEngine engine = new RuleEngine();
+            engine.setRecordPasseds(recordPasseds);
+            engine.setRuleTimeout(slow, Duration.ofMillis(30));
+            List<RuleOutcome> outcomes = new CopyOnWriteArrayList<>();
+            engine.addListener(new RuleListener() {
+                @Override
+                public void onFinish(Rule<?> rule, long durationNanos, RuleOutcome outcome, Throwable error) {
+                    outcomes.add(outcome);
+                }
+            });
+
+            RuleCheckResult result = engine.run(slow, "A");
+
+            Assertions.assertEquals("规则执行超时", result.getError("slow").getMessage());
+            // 拿到超时结果时，规则返回的Future已被取消，监听器也已收到回调
+            Assertions.assertTrue(slow.lastFuture.isCancelled());
+            Assertions.assertEquals(1, outcomes.size());
+            Assertions.assertEquals(RuleOutcome.CANCELLED, outcomes.get(0));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchRuleTest {
+
+    /**
+     * 内存中的黑名单，记录查询次数
+     */
+    public static class Blocklist {
+        final AtomicInteger lookups = new AtomicInteger();
+        private final Set<String> blocked;
+
+        public Blocklist(String... blocked) {
+            this.blocked = new HashSet<>(Arrays.asList(blocked));
+        }
+
+        public Set<String> findAll(List<String> keys) {
+            this.lookups.incrementAndGet();
+            Set<String> found = new HashSet<>(keys);
+            found.retainAll(this.blocked);
+            return found;
+        }
+    }
+
+    public static class NotBlockedRule extends Rule<String> implements BatchRule<String> {
+        private final Blocklist blocklist;
+
+        public NotBlockedRule(Blocklist blocklist) {
+            this.blocklist = blocklist;
+        }
+
+        @Override
+        public RuleCheckResult check(String target) {
+            return this.checkAll(Collections.singletonList(target)).get(0);
+        }
+
+        @Override
+        public List<RuleCheckResult> checkAll(List<String> targets) {
+            Set<String> blocked = this.blocklist.findAll(targets);
+            List<RuleCheckResult> results = new ArrayList<>(targets.size());
+            for (String target : targets) {
+                results.add(blocked.contains(target) ? this.error("已被拉黑：" + target) : this.pass());
+            }
+            return results;
+        }
+    }
+
+    public static class NotEmptyRule extends Rule<String> {
+        @Override
+        public RuleCheckResult check(String target) {
+            return target.startsWith("empty") ? this.error("为空") : this.pass();
+        }
+    }
+
+    private static List<String> targets(int count) {
+        List<String> targets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            targets.add(i % 10 == 0 ? "empty" + i : "t" + i);
+        }
+        return targets;
+    }
+
+    @Test
+    public void testOneLookupPerChunk() {
+        Blocklist blocklist = new Blocklist("t1", "t2", "t55");
+        NotBlockedRule notBlocked = new NotBlockedRule(blocklist);
+        SerialRuleSetTest.CountingRule after = new SerialRuleSetTest.CountingRule("after", 0, true);
+        SerialRuleSet<String> ruleSet = Rule.serial(new NotEmptyRule(), Rule.parallel(notBlocked, after));
+        List<String> targets = targets(100);
+
+        RuleEngine engine = new RuleEngine();
+        engine.setBatchChunkSize(25);
+        List<RuleCheckResult> results = engine.runBatch(ruleSet, targets);
+
+        Assertions.assertEquals(4, blocklist.lookups.get());
+        // 被第一个规则短路的目标不再执行后续规则
+        Assertions.assertEquals(90, after.count.get());
+        for (int i = 0; i < targets.size(); i++) {
+            RuleCheckResult expected = RuleEngine.inline().run(ruleSet, targets.get(i));
+            Assertions.assertEquals(expected.hasError(), results.get(i).hasError(), targets.get(i));
+            Assertions.assertEquals(expected.getErrors().size(), results.get(i).getErrors().size());
+            Assertions.assertEquals(expected.getPasseds().size(), results.get(i).getPasseds().size());
+        }
+        Assertions.assertTrue(results.get(55).hasError(notBlocked.getName()));
+        Assertions.assertTrue(results.get(10).hasError(NotEmptyRule.class));
+    }
+
+    @Test
+    public void testOrSemantics() {
+        Blocklist blocklist = new Blocklist("t1", "t3");
+        SerialRuleSetTest.CountingRule fallback = new SerialRuleSetTest.CountingRule("fallback", 0, false);
+        SerialRuleSet<String> ruleSet = Rule.serial(RuleSet.Operator.OR, new NotBlockedRule(blocklist), fallback);
+
+        RuleEngine engine = new RuleEngine();
+        engine.setBatchChunkSize(10);
+        List<RuleCheckResult> results = engine.runBatch(ruleSet, Arrays.asList("t1", "t2", "t3", "t4"));
+
+        Assertions.assertEquals(1, blocklist.lookups.get());
+        Assertions.assertEquals(2, fallback.count.get());
+        Assertions.assertTrue(results.get(0).hasError());
+        Assertions.assertFalse(results.get(1).hasError());
+        Assertions.assertEquals(1, results.get(1).getPasseds().size());
+    }
+
+    @Test
+    public void testFallbackAndValidation() {
+        Blocklist blocklist = new Blocklist("t1");
+        RuleEngine engine = new RuleEngine();
+        engine.setBatchChunkSize(10);
+        engine.setDeduplicate(true);
+        engine.runBatch(new NotBlockedRule(blocklist), targets(10));
+        // 开启去重时逐个执行
+        Assertions.assertEquals(10, blocklist.lookups.get());
+
+        class BrokenRule extends NotBlockedRule {
+            BrokenRule() {
+                super(blocklist);
+            }
+
+            @Override
+            public List<RuleCheckResult> checkAll(List<String> targets) {
+                return Collections.emptyList();
+            }
+        }
+        Assertions.assertThrows(RuntimeException.class, () -> new RuleEngine().runBatch(new BrokenRule(), targets(3)));
+    }
+
+    @Test
+    public void testListenerDurationSharedAcrossChunk() {
+        class SlowBatchRule extends NotBlockedRule {
+            SlowBatchRule() {
+                super(new Blocklist());
+            }
+
+            @Override
+            public List<RuleCheckResult> checkAll(List<String> targets) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.checkAll(targets);
+            }
+        }
+        SlowBatchRule rule = new SlowBatchRule();
+        SerialRuleSet<String> ruleSet = Rule.serial(rule);
+        ruleSet.setName("slowSet");
+        RuleMetricsRecorder recorder = new RuleMetricsRecorder();
+        RuleEngine engine = new RuleEngine();
+        engine.setBatchChunkSize(20);
+        engine.addListener(recorder);
+
+        long start = System.nanoTime();
+        engine.runBatch(ruleSet, targets(20));
+        long elapsed = System.nanoTime() - start;
+
+        // 每个目标分摊分块的耗时，总耗时不会被放大为分块大小的倍数
+        for (String name : new String[]{rule.getName(), "slowSet"}) {
+            RuleMetricsRecorder.RuleMetrics metrics = recorder.getMetrics(name);
+            Assertions.assertEquals(20, metrics.getCount());
+            Assertions.assertTrue(metrics.getTotalNanos() <= elapsed, name);
+        }
+    }
+}
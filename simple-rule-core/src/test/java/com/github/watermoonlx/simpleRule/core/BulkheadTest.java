@@ -0,0 +1,96 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BulkheadTest {
+
+    public static class ThreadNameRule extends Rule<String> {
+        final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public RuleCheckResult check(String target) {
+            this.threadNames.add(Thread.currentThread().getName());
+            return this.pass();
+        }
+    }
+
+    @Rule.Descriptor(value = "远程规则", executor = "remote")
+    public static class RemoteRule extends ThreadNameRule {
+    }
+
+    @Test
+    public void testExecutorCategory() {
+        RemoteRule remote = new RemoteRule();
+        ThreadNameRule mapped = new ThreadNameRule();
+        ThreadNameRule local = new ThreadNameRule();
+        ParallelRuleSet<String> ruleSet = Rule.parallel(remote, mapped, local);
+
+        for (RuleEngine engine : new RuleEngine[]{new RuleEngine(), RuleEngine.inline()}) {
+            engine.registerExecutor("remote", 2);
+            engine.setRuleExecutor(mapped, "remote");
+            engine.run(ruleSet, "A");
+            engine.compile(ruleSet).check("A");
+        }
+
+        Assertions.assertTrue(remote.threadNames.stream().allMatch(name -> name.startsWith("simple-rule-remote-")));
+        Assertions.assertTrue(mapped.threadNames.stream().allMatch(name -> name.startsWith("simple-rule-remote-")));
+        Assertions.assertTrue(local.threadNames.stream().noneMatch(name -> name.startsWith("simple-rule-remote-")));
+
+        // 未注册的类别使用引擎的线程池
+        RemoteRule unregistered = new RemoteRule();
+        new RuleEngine().run(unregistered, "A");
+        Assertions.assertTrue(unregistered.threadNames.stream().noneMatch(name -> name.startsWith("simple-rule-remote-")));
+    }
+
+    @Test
+    public void testIsolation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        class BlockingRule extends Rule<String> {
+            @Override
+            public RuleCheckResult check(String target) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return this.pass();
+            }
+        }
+        BlockingRule slow1 = new BlockingRule();
+        BlockingRule slow2 = new BlockingRule();
+        BlockingRule slow3 = new BlockingRule();
+        ThreadNameRule local = new ThreadNameRule();
+
+        RuleEngine engine = new RuleEngine();
+        Bulkhead bulkhead = engine.registerExecutor("remote", 1);
+        engine.setRuleExecutor(slow1, "remote");
+        engine.setRuleExecutor(slow2, "remote");
+        engine.setRuleExecutor(slow3, "remote");
+
+        ParallelRuleSet<String> ruleSet = Rule.parallel(slow1, slow2, slow3);
+        CompletableFuture<RuleCheckResult> future = engine.runAsync(ruleSet, "A");
+        for (int i = 0; i < 100 && bulkhead.getActiveCount() == 0; i++) {
+            Thread.sleep(10);
+        }
+
+        // 远程规则占满了自己的执行器，本地规则不受影响
+        Assertions.assertFalse(engine.runAsync(local, "A").get(1, TimeUnit.SECONDS).hasError());
+        Assertions.assertEquals(2, bulkhead.getQueueDepth());
+        Assertions.assertEquals(1, bulkhead.getActiveCount());
+
+        release.countDown();
+        Assertions.assertFalse(future.join().hasError());
+        BulkheadStats stats = bulkhead.getStats();
+        Assertions.assertEquals(0, stats.getQueueDepth());
+        Assertions.assertTrue(stats.getPeakQueueDepth() >= 2);
+        Assertions.assertEquals(3, stats.getSubmittedCount());
+        Assertions.assertSame(bulkhead, engine.getBulkhead("remote"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachedRuleTest {
+
+    public static class CountingWarningRule extends Rule<String> {
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public RuleCheckResult check(String target) {
+            this.count.incrementAndGet();
+            return this.warning("警告：" + target);
+        }
+    }
+
+    @Rule.Cacheable(maximumSize = 100)
+    public static class AnnotatedRule extends CountingWarningRule {
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        CountingWarningRule rule = new CountingWarningRule();
+        CachedRule<String> cachedRule = rule.cached(target -> target.toUpperCase());
+
+        RuleCheckResult result1 = cachedRule.check("a");
+        RuleCheckResult result2 = cachedRule.check("A");
+        cachedRule.check("b");
+
+        Assertions.assertEquals(2, rule.count.get());
+        Assertions.assertEquals(rule.getName(), cachedRule.getName());
+        Assertions.assertEquals("警告：a", result2.getWarnings().get(0).getMessage());
+        Assertions.assertNotSame(result1, result2);
+        CacheStats stats = cachedRule.getStats();
+        Assertions.assertEquals(1, stats.getHitCount());
+        Assertions.assertEquals(2, stats.getMissCount());
+        Assertions.assertEquals(2, stats.getSize());
+
+        cachedRule.invalidate("A");
+        cachedRule.check("a");
+        Assertions.assertEquals(3, rule.count.get());
+    }
+
+    @Test
+    public void testCopyOnRead() {
+        CountingWarningRule rule = new CountingWarningRule();
+        CachedRule<String> cachedRule = rule.cached(target -> target);
+
+        RuleCheckResult result1 = cachedRule.check("a");
+        result1.resolveAllWarnings();
+        RuleCheckResult result2 = cachedRule.check("a");
+        result2.addError(new RuleCheckResultDetail("other", "错误"));
+        RuleCheckResult result3 = cachedRule.check("a");
+
+        Assertions.assertEquals(1, rule.count.get());
+        Assertions.assertEquals(1, result2.getWarnings().size());
+        Assertions.assertEquals(1, result3.getWarnings().size());
+        Assertions.assertFalse(result3.hasError());
+
+        // 修改结果详情同样不影响缓存，包括首次加载时返回的结果
+        RuleCheckResult loaded = cachedRule.check("b");
+        loaded.getWarnings().get(0).setMessage("已修改");
+        result3.getWarnings().get(0).setMessage("已修改");
+        result3.getWarnings().get(0).setRuleName("other");
+        Assertions.assertEquals("警告：b", cachedRule.check("b").getWarnings().get(0).getMessage());
+        RuleCheckResult result4 = cachedRule.check("a");
+        Assertions.assertEquals("警告：a", result4.getWarnings().get(0).getMessage());
+        Assertions.assertTrue(result4.hasWarning(CountingWarningRule.class));
+    }
+
+    @Test
+    public void testEviction() throws InterruptedException {
+        CountingWarningRule rule = new CountingWarningRule();
+        CachedRule<String> lruRule = rule.cached(target -> target, 1, null);
+        lruRule.check("a");
+        lruRule.check("b");
+        lruRule.check("a");
+        Assertions.assertEquals(3, rule.count.get());
+        Assertions.assertEquals(1, lruRule.getStats().getSize());
+        Assertions.assertEquals(2, lruRule.getStats().getEvictionCount());
+
+        CountingWarningRule rule2 = new CountingWarningRule();
+        CachedRule<String> ttlRule = rule2.cached(target -> target, 100, Duration.ofMillis(20));
+        ttlRule.check("a");
+        ttlRule.check("a");
+        Assertions.assertEquals(1, rule2.count.get());
+        Thread.sleep(40);
+        ttlRule.check("a");
+        Assertions.assertEquals(2, rule2.count.get());
+    }
+
+    @Test
+    public void testAnnotation() {
+        AnnotatedRule rule = new AnnotatedRule();
+        SerialRuleSet<String> ruleSet = Rule.serial(rule);
+
+        new RuleEngine().run(ruleSet, "a");
+        RuleEngine.inline().run(ruleSet, "a");
+        new RuleEngine().compile(ruleSet).check("a");
+        Assertions.assertEquals(1, rule.count.get());
+
+        // 直接调用check()不使用缓存
+        rule.check("a");
+        Assertions.assertEquals(2, rule.count.get());
+    }
+
+    @Test
+    public void testEngineCache() {
+        CountingWarningRule rule = new CountingWarningRule();
+        SerialRuleSet<String> ruleSet = Rule.serial(rule);
+        RuleEngine engine = new RuleEngine();
+        CachedRule<String> cachedRule = engine.cache(rule, String::length, 100, null);
+
+        engine.run(ruleSet, "a");
+        RuleCheckResult result = engine.run(ruleSet, "b");
+        Assertions.assertEquals(1, rule.count.get());
+        Assertions.assertEquals("警告：a", result.getWarnings().get(0).getMessage());
+        Assertions.assertEquals(1, cachedRule.getStats().getHitCount());
+
+        new RuleEngine().run(ruleSet, "b");
+        Assertions.assertEquals(2, rule.count.get());
+
+        engine.removeCache(rule);
+        engine.run(ruleSet, "b");
+        Assertions.assertEquals(3, rule.count.get());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> engine.cache(ruleSet, String::length, 100, null));
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import com.github.watermoonlx.simpleRule.utils.AssertUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class CompiledRuleTest {
+
+    private SerialRuleSet<String> createRuleSet() {
+        return Rule.serial(
+                new SerialRuleSetTest.MockRule("A"),
+                Rule.parallel(
+                        new SerialRuleSetTest.MockRule("A"),
+                        Rule.serial(RuleSet.Operator.OR,
+                                new SerialRuleSetTest.MockRule("B"),
+                                new SerialRuleSetTest.MockRule("A"))
+                ),
+                Rule.parallel(RuleSet.Operator.OR,
+                        new SerialRuleSetTest.MockRule("B"),
+                        new SerialRuleSetTest.MockRule("C"))
+        );
+    }
+
+    @Test
+    public void testSameResultAsRuleSet() {
+        SerialRuleSet<String> ruleSet = this.createRuleSet();
+        CompiledRule<String> compiled = new RuleEngine().compile(ruleSet);
+
+        for (String target : new String[]{"A", "B", "C"}) {
+            AssertUtils.assertResultEquals(ruleSet.check(target), compiled.check(target));
+            AssertUtils.assertResultEquals(ruleSet.check(target), compiled.checkAsync(target).join());
+        }
+    }
+
+    @Test
+    public void testFrozenAfterCompile() {
+        SerialRuleSet<String> ruleSet = Rule.serial(new SerialRuleSetTest.MockRule("A"));
+        CompiledRule<String> compiled = new RuleEngine().compile(ruleSet);
+
+        ruleSet.register(new SerialRuleSetTest.MockRule("B"));
+
+        Assertions.assertTrue(ruleSet.check("A").hasError());
+        Assertions.assertFalse(compiled.check("A").hasError());
+        Assertions.assertSame(ruleSet, compiled.getRule());
+    }
+
+    @Test
+    public void testConcurrentCheck() {
+        CompiledRule<String> compiled = new RuleEngine().compile(this.createRuleSet());
+
+        List<CompletableFuture<RuleCheckResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(compiled.checkAsync(i % 2 == 0 ? "A" : "B"));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            Assertions.assertEquals(i % 2 == 0 ? 2 : 1, futures.get(i).join().getErrors().size());
+        }
+    }
+
+    @Test
+    public void testNestedParallelOnBoundedPool() {
+        ExecutorService pool = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "bounded-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            ParallelRuleSet<String> ruleSet = Rule.parallel(
+                    Rule.parallel(new SerialRuleSetTest.MockRule("A"), new SerialRuleSetTest.MockRule("A")),
+                    Rule.parallel(new SerialRuleSetTest.MockRule("A"), new SerialRuleSetTest.MockRule("B")));
+            CompiledRule<String> compiled = new RuleEngine(pool).compile(ruleSet);
+
+            // 线程池的两个线程都在等待并行节点的子节点时，不会因子节点排在后面而死锁
+            List<RuleCheckResult> results = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                List<CompletableFuture<RuleCheckResult>> futures = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    futures.add(compiled.checkAsync("A"));
+                }
+                List<RuleCheckResult> joined = new ArrayList<>();
+                for (CompletableFuture<RuleCheckResult> future : futures) {
+                    joined.add(future.join());
+                }
+                return joined;
+            });
+
+            for (RuleCheckResult result : results) {
+                Assertions.assertEquals(1, result.getErrors().size());
+                Assertions.assertEquals(3, result.getPasseds().size());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+public class ExecutionTraceTest {
+
+    public static class SleepRule extends Rule<String> {
+        private final long millis;
+        private final boolean pass;
+
+        public SleepRule(String name, long millis, boolean pass) {
+            this.millis = millis;
+            this.pass = pass;
+            this.setName(name);
+        }
+
+        @Override
+        public RuleCheckResult check(String target) {
+            try {
+                Thread.sleep(this.millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return this.pass ? this.pass("通过") : this.error("不通过");
+        }
+    }
+
+    @Test
+    public void testTrace() throws IOException {
+        SleepRule first = new SleepRule("first", 1, true);
+        SleepRule fast = new SleepRule("fast", 1, true);
+        SleepRule slow = new SleepRule("slow", 30, true);
+        SleepRule failed = new SleepRule("failed", 1, false);
+        SleepRule skipped = new SleepRule("skipped", 1, true);
+        ParallelRuleSet<String> fork = Rule.parallel(fast, slow);
+        SerialRuleSet<String> ruleSet = Rule.serial(first, fork, failed, skipped);
+
+        for (RuleEngine engine : new RuleEngine[]{new RuleEngine(), RuleEngine.inline()}) {
+            ExecutionTrace trace = engine.trace(ruleSet, "A");
+
+            Assertions.assertTrue(trace.getResult().hasError("failed"));
+            Assertions.assertTrue(trace.getTotalNanos() >= 30_000_000L);
+            Assertions.assertEquals(ExecutionTrace.NodeStatus.COMPLETED, trace.getStatus(slow));
+            Assertions.assertEquals(ExecutionTrace.NodeStatus.COMPLETED, trace.getStatus(failed));
+            Assertions.assertEquals(ExecutionTrace.NodeStatus.SKIPPED, trace.getStatus(skipped));
+            Assertions.assertNull(trace.getSpan(skipped));
+            Assertions.assertEquals(RuleOutcome.ERROR, trace.getSpan(ruleSet).getOutcome());
+            Assertions.assertNotNull(trace.getSpan(slow).getThreadName());
+            Assertions.assertEquals(6, trace.getSpans().size());
+
+            List<Rule<?>> criticalPath = trace.getCriticalPath();
+            Assertions.assertTrue(criticalPath.contains(ruleSet));
+            Assertions.assertTrue(criticalPath.contains(first));
+            Assertions.assertTrue(criticalPath.contains(fork));
+            Assertions.assertTrue(criticalPath.contains(slow));
+            Assertions.assertFalse(criticalPath.contains(fast));
+            Assertions.assertTrue(criticalPath.contains(failed));
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            trace.drawImage(outputStream);
+            Assertions.assertTrue(outputStream.size() > 0);
+        }
+    }
+
+    @Test
+    public void testTraceCancelled() {
+        SleepRule fast = new SleepRule("fast", 1, true);
+        SleepRule slow = new SleepRule("slow", 200, true);
+        ParallelRuleSet<String> ruleSet = Rule.parallel(RuleSet.Operator.OR, fast, slow);
+
+        ExecutionTrace trace = new RuleEngine().trace(ruleSet, "A");
+
+        Assertions.assertFalse(trace.getResult().hasError());
+        Assertions.assertEquals(ExecutionTrace.NodeStatus.COMPLETED, trace.getStatus(fast));
+        Assertions.assertEquals(ExecutionTrace.NodeStatus.CANCELLED, trace.getStatus(slow));
+        Assertions.assertTrue(trace.getCriticalPath().contains(fast));
+        Assertions.assertFalse(trace.getCriticalPath().contains(slow));
+    }
+}
@@ -0,0 +1,214 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+public class ExpressionRuleTest {
+
+    public enum Level {
+        PM, DEV
+    }
+
+    public static class Buyer {
+        private final String name;
+        private final Level level;
+
+        public Buyer(String name, Level level) {
+            this.name = name;
+            this.level = level;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public Level getLevel() {
+            return this.level;
+        }
+    }
+
+    public static class Order {
+        public final String channel;
+        private final int amount;
+        private final Integer discount;
+        private final BigDecimal price;
+        private final boolean vip;
+        private final Buyer buyer;
+
+        public Order(int amount, Integer discount, BigDecimal price, boolean vip, Buyer buyer) {
+            this.channel = "web";
+            this.amount = amount;
+            this.discount = discount;
+            this.price = price;
+            this.vip = vip;
+            this.buyer = buyer;
+        }
+
+        public int getAmount() {
+            return this.amount;
+        }
+
+        public Integer getDiscount() {
+            return this.discount;
+        }
+
+        public BigDecimal getPrice() {
+            return this.price;
+        }
+
+        public boolean isVip() {
+            return this.vip;
+        }
+
+        public Buyer getBuyer() {
+            return this.buyer;
+        }
+    }
+
+    public static class Account {
+        private final char grade;
+        private final Character level;
+        private final long id;
+        private final Long parentId;
+        private final BigDecimal balance;
+
+        public Account(char grade, Character level) {
+            this(grade, level, 0, null, null);
+        }
+
+        public Account(char grade, Character level, long id, Long parentId, BigDecimal balance) {
+            this.grade = grade;
+            this.level = level;
+            this.id = id;
+            this.parentId = parentId;
+            this.balance = balance;
+        }
+
+        public char getGrade() {
+            return this.grade;
+        }
+
+        public Character getLevel() {
+            return this.level;
+        }
+
+        public long getId() {
+            return this.id;
+        }
+
+        public Long getParentId() {
+            return this.parentId;
+        }
+
+        public BigDecimal getBalance() {
+            return this.balance;
+        }
+    }
+
+    private static final Order ORDER = new Order(800, null, new BigDecimal("99.5"), true, new Buyer("Jake", Level.PM));
+
+    private static boolean test(String expression, Order order) {
+        return !new ExpressionRule<>(Order.class, expression).check(order).hasError();
+    }
+
+    @Test
+    public void testEvaluate() {
+        Assertions.assertTrue(test("amount < 1000", ORDER));
+        Assertions.assertFalse(test("amount > 1000", ORDER));
+        Assertions.assertTrue(test("1000 > amount && amount >= 800", ORDER));
+        Assertions.assertTrue(test("amount * 2 - 600 == 1000", ORDER));
+        Assertions.assertTrue(test("-amount < 0 and (price <= 99.5 or vip)", ORDER));
+        Assertions.assertTrue(test("buyer.name == 'Jake' && buyer.level == \"PM\"", ORDER));
+        Assertions.assertFalse(test("!vip || buyer.level != 'PM'", ORDER));
+        Assertions.assertTrue(test("not (amount % 3 == 0)", ORDER));
+        Assertions.assertTrue(test("buyer.name >= 'J' && channel == 'web'", ORDER));
+
+        // 为null的属性
+        Assertions.assertTrue(test("discount == null", ORDER));
+        Assertions.assertFalse(test("discount < 10 || discount >= 10", ORDER));
+        Order anonymous = new Order(800, 5, BigDecimal.ONE, false, null);
+        Assertions.assertTrue(test("buyer.name == null && discount < 10", anonymous));
+        Assertions.assertFalse(test("buyer.level == 'PM'", anonymous));
+    }
+
+    @Test
+    public void testCompileErrors() {
+        String[] invalid = {
+                "amount <",
+                "amount < 1000 )",
+                "(amount < 1000",
+                "amount",
+                "amount + 1",
+                "amonut < 1000",
+                "amount < 'abc'",
+                "buyer.level == 'CEO'",
+                "vip && amount",
+                "buyer.name < null",
+                "'abc",
+                "amount # 1",
+        };
+        for (String expression : invalid) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Rule.expression(Order.class, expression), expression);
+        }
+    }
+
+    @Test
+    public void testCharacter() {
+        Account account = new Account('A', null);
+        Assertions.assertFalse(Rule.expression(Account.class, "grade == 'A' && grade != \"B\"").check(account).hasError());
+        Assertions.assertFalse(Rule.expression(Account.class, "'B' > grade && grade >= 'A'").check(account).hasError());
+        Assertions.assertTrue(Rule.expression(Account.class, "grade == 'B'").check(account).hasError());
+        Assertions.assertFalse(Rule.expression(Account.class, "level == null && level != 'A'").check(account).hasError());
+        Assertions.assertFalse(Rule.expression(Account.class, "grade == level").check(new Account('C', 'C')).hasError());
+
+        // 不能与多个字符的字符串或数字比较
+        for (String expression : new String[]{"grade == 'AB'", "grade == ''", "grade == 65"}) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Rule.expression(Account.class, expression), expression);
+        }
+    }
+
+    @Test
+    public void testPrecision() {
+        // 2^53 + 1无法用double表示，long与BigDecimal按精确值比较
+        Account account = new Account('A', null, 9007199254740992L, null, new BigDecimal("0.30"));
+        Assertions.assertTrue(Rule.expression(Account.class, "id == 9007199254740993").check(account).hasError());
+        Assertions.assertFalse(Rule.expression(Account.class, "id < 9007199254740993 && id >= 9007199254740992").check(account).hasError());
+        Assertions.assertFalse(Rule.expression(Account.class, "id > 9007199254740991.5 && id != -9007199254740992").check(account).hasError());
+        Assertions.assertFalse(Rule.expression(Account.class, "id == 9007199254740992 && 9007199254740993 > id").check(account).hasError());
+        Assertions.assertFalse(Rule.expression(Account.class, "balance == 0.3 && balance < 0.30000000000000001").check(account).hasError());
+        Assertions.assertTrue(Rule.expression(Account.class, "balance == 0.1 + 0.2").check(account).hasError());
+        Assertions.assertFalse(Rule.expression(Account.class, "parentId == null && parentId != 1 && !(parentId < 1)").check(account).hasError());
+        Assertions.assertFalse(Rule.expression(Account.class, "parentId == id").check(
+                new Account('A', null, Long.MAX_VALUE, Long.MAX_VALUE, null)).hasError());
+        Assertions.assertTrue(Rule.expression(Account.class, "parentId == id").check(
+                new Account('A', null, Long.MAX_VALUE, Long.MAX_VALUE - 1, null)).hasError());
+
+        // 按double计算时超出精确范围的整数字面量在构造时报错
+        for (String expression : new String[]{"id + 1 < 9007199254740993", "9007199254740993 == 9007199254740992"}) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Rule.expression(Account.class, expression), expression);
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Rule.expression(Order.class, "amount < 9007199254740993"));
+    }
+
+    @Test
+    public void testAsRule() {
+        ExpressionRule<Order> max = new ExpressionRule<>(Order.class, "amount < 500", "金额超过上限");
+        ExpressionRule<Order> jake = Rule.expression(Order.class, "buyer.name == 'Jake'");
+        SerialRuleSet<Order> ruleSet = Rule.serial(Rule.parallel(max, jake), Rule.expression(Order.class, "vip"));
+
+        RuleCheckResult result = new RuleEngine().run(ruleSet, ORDER);
+        Assertions.assertTrue(result.hasError("amount < 500"));
+        Assertions.assertEquals("金额超过上限", result.getErrors().get(0).getMessage());
+        Assertions.assertFalse(result.hasError(jake.getName()));
+
+        max.setWarning(true);
+        result = RuleEngine.inline().run(ruleSet, ORDER);
+        Assertions.assertFalse(result.hasError());
+        Assertions.assertTrue(result.hasWarning());
+
+        // 表达式相同的规则在去重时只执行一次
+        Assertions.assertEquals(jake.getEquivalenceKey(), Rule.expression(Order.class, "buyer.name == 'Jake'").getEquivalenceKey());
+    }
+}
@@ -166,4 +166,62 @@ public class ParallelRuleSetTest {
         long elapsed = Duration.between(start, end).toMillis();
         Assertions.assertTrue(elapsed < 3000);
     }
+
+    @Test
+    public void testOrShortCircuit() {
+        class DelayRule extends Rule<String> {
+            @Override
+            public RuleCheckResult check(@NonNull String target) {
+                try {
+                    Thread.sleep(3000);
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+
+                return this.error("超时");
+            }
+        }
+
+        ParallelRuleSet<String> ruleSet = new ParallelRuleSet<>(
+                RuleSet.Operator.OR,
+                new DelayRule(),
+                new MockRule("A")
+        );
+        LocalDateTime start = LocalDateTime.now();
+        RuleCheckResult result = ruleSet.checkAsync("A").join();
+        LocalDateTime end = LocalDateTime.now();
+        long elapsed = Duration.between(start, end).toMillis();
+        Assertions.assertTrue(elapsed < 2000);
+        Assertions.assertFalse(result.hasError());
+        Assertions.assertEquals(1, result.getPasseds().size());
+    }
+
+    @Test
+    public void testAndFailFast() {
+        class DelayRule extends Rule<String> {
+            @Override
+            public RuleCheckResult check(@NonNull String target) {
+                try {
+                    Thread.sleep(3000);
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+
+                return this.pass();
+            }
+        }
+
+        ParallelRuleSet<String> ruleSet = new ParallelRuleSet<>(
+                new DelayRule(),
+                new MockRule("B")
+        );
+        ruleSet.setFailFast(true);
+        LocalDateTime start = LocalDateTime.now();
+        RuleCheckResult result = ruleSet.checkAsync("A").join();
+        LocalDateTime end = LocalDateTime.now();
+        long elapsed = Duration.between(start, end).toMillis();
+        Assertions.assertTrue(elapsed < 2000);
+        Assertions.assertEquals(1, result.getErrors().size());
+        Assertions.assertTrue(result.getPasseds().isEmpty());
+    }
 }
@@ -0,0 +1,146 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RangeRuleSetTest {
+
+    private static final AtomicInteger CHECKS = new AtomicInteger();
+
+    /**
+     * 记录检查次数的表达式规则
+     */
+    public static class CountingExpressionRule extends ExpressionRule<ExpressionRuleTest.Order> {
+        public CountingExpressionRule(String expression) {
+            super(ExpressionRuleTest.Order.class, expression);
+        }
+
+        @Override
+        public RuleCheckResult check(ExpressionRuleTest.Order target) {
+            CHECKS.incrementAndGet();
+            return super.check(target);
+        }
+    }
+
+    private static List<Rule<ExpressionRuleTest.Order>> rules() {
+        List<Rule<ExpressionRuleTest.Order>> rules = new ArrayList<>();
+        String[] operators = {"<", "<=", ">", ">="};
+        for (int i = 0; i < 200; i++) {
+            String op = operators[i % operators.length];
+            rules.add(new CountingExpressionRule("amount " + op + " " + (i * 10)));
+            rules.add(new CountingExpressionRule((i * 3) + " " + op + " discount"));
+        }
+        rules.add(new CountingExpressionRule("amount == 800"));
+        rules.add(new CountingExpressionRule("buyer.name == 'Jake'"));
+        return rules;
+    }
+
+    private static Set<String> names(List<RuleCheckResultDetail> details) {
+        Set<String> names = new HashSet<>();
+        for (RuleCheckResultDetail detail : details) {
+            names.add(detail.getRuleName());
+        }
+        return names;
+    }
+
+    @Test
+    public void testSameResultAsParallelRuleSet() {
+        List<Rule<ExpressionRuleTest.Order>> rules = rules();
+        @SuppressWarnings("unchecked")
+        Rule<ExpressionRuleTest.Order>[] array = rules.toArray(new Rule[0]);
+        RangeRuleSet<ExpressionRuleTest.Order> rangeRuleSet = new RangeRuleSet<>(array);
+        ParallelRuleSet<ExpressionRuleTest.Order> parallelRuleSet = Rule.parallel(array);
+        Assertions.assertEquals(400, rangeRuleSet.getIndexedCount());
+
+        Random random = new Random(42);
+        for (int i = 0; i < 50; i++) {
+            Integer discount = i % 7 == 0 ? null : random.nextInt(700) - 50;
+            ExpressionRuleTest.Order order = new ExpressionRuleTest.Order(random.nextInt(2200) - 100, discount,
+                    BigDecimal.ONE, false, new ExpressionRuleTest.Buyer(i % 2 == 0 ? "Jake" : "Tom", null));
+
+            RuleCheckResult expected = RuleEngine.inline().run(parallelRuleSet, order);
+            RuleCheckResult actual = new RuleEngine().run(rangeRuleSet, order);
+            Assertions.assertEquals(names(expected.getErrors()), names(actual.getErrors()));
+            Assertions.assertEquals(expected.getErrors().size(), actual.getErrors().size());
+            Assertions.assertEquals(names(expected.getPasseds()), names(actual.getPasseds()));
+        }
+    }
+
+    @Test
+    public void testOnlyViolatedRulesChecked() {
+        RangeRuleSet<ExpressionRuleTest.Order> rangeRuleSet = new RangeRuleSet<>();
+        for (int i = 0; i < 1000; i++) {
+            rangeRuleSet.register(new CountingExpressionRule("amount < " + i));
+        }
+        RuleEngine engine = new RuleEngine();
+        engine.setRecordPasseds(false);
+        ExpressionRuleTest.Order order = new ExpressionRuleTest.Order(995, null, BigDecimal.ONE, false, null);
+
+        int before = CHECKS.get();
+        RuleCheckResult result = engine.run(rangeRuleSet, order);
+
+        // 只有amount < 0 ~ amount < 995被违反
+        Assertions.assertEquals(996, result.getErrors().size());
+        Assertions.assertEquals(996, CHECKS.get() - before);
+        Assertions.assertTrue(result.hasError("amount < 995"));
+        Assertions.assertFalse(result.hasError("amount < 996"));
+        Assertions.assertTrue(result.getPasseds().isEmpty());
+
+        // 记录通过信息的引擎检查所有规则
+        before = CHECKS.get();
+        result = new RuleEngine().run(rangeRuleSet, order);
+        Assertions.assertEquals(996, result.getErrors().size());
+        Assertions.assertEquals(4, result.getPasseds().size());
+        Assertions.assertEquals(1000, CHECKS.get() - before);
+
+        order = new ExpressionRuleTest.Order(-1, null, BigDecimal.ONE, false, null);
+        before = CHECKS.get();
+        Assertions.assertFalse(engine.run(rangeRuleSet, order).hasError());
+        Assertions.assertEquals(0, CHECKS.get() - before);
+    }
+
+    @Test
+    public void testCachedFollowsEngineSetting() {
+        RangeRuleSet<ExpressionRuleTest.Order> rangeRuleSet = new RangeRuleSet<>();
+        for (int i = 0; i < 1000; i++) {
+            rangeRuleSet.register(new CountingExpressionRule("amount < " + i));
+        }
+        ExpressionRuleTest.Order order = new ExpressionRuleTest.Order(995, null, BigDecimal.ONE, false, null);
+        RuleEngine engine = new RuleEngine();
+        engine.setRecordPasseds(false);
+
+        // 通过CachedRule装饰
+        CachedRule<ExpressionRuleTest.Order> cached = rangeRuleSet.cached(ExpressionRuleTest.Order::getAmount);
+        int before = CHECKS.get();
+        RuleCheckResult result = engine.run(cached, order);
+        Assertions.assertEquals(996, result.getErrors().size());
+        Assertions.assertTrue(result.getPasseds().isEmpty());
+        Assertions.assertEquals(996, CHECKS.get() - before);
+
+        before = CHECKS.get();
+        Assertions.assertEquals(996, engine.run(cached, order).getErrors().size());
+        Assertions.assertEquals(0, CHECKS.get() - before);
+
+        // 记录通过信息的引擎不会读取到不含通过信息的缓存结果
+        before = CHECKS.get();
+        result = new RuleEngine().run(cached, order);
+        Assertions.assertEquals(4, result.getPasseds().size());
+        Assertions.assertEquals(1000, CHECKS.get() - before);
+
+        // 通过RuleEngine.cache()配置缓存
+        engine.cache(rangeRuleSet, ExpressionRuleTest.Order::getAmount, 10, null);
+        before = CHECKS.get();
+        result = engine.run(rangeRuleSet, order);
+        Assertions.assertEquals(996, result.getErrors().size());
+        Assertions.assertTrue(result.getPasseds().isEmpty());
+        Assertions.assertEquals(996, CHECKS.get() - before);
+    }
+}
@@ -0,0 +1,181 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import com.github.watermoonlx.simpleRule.utils.AssertUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RuleCheckResultTest {
+
+    private static RuleCheckResult error(String ruleName) {
+        return new RuleCheckResult().addError(new RuleCheckResultDetail(ruleName, "错误"));
+    }
+
+    private static RuleCheckResult warning(String ruleName) {
+        return new RuleCheckResult().addWarning(new RuleCheckResultDetail(ruleName, "警告"));
+    }
+
+    private static RuleCheckResult passed(String ruleName) {
+        return new RuleCheckResult().addPassed(new RuleCheckResultDetail(ruleName, "通过"));
+    }
+
+    @Test
+    public void testCombine() {
+        RuleCheckResult result1 = error("Rule1").combine(passed("Rule2"));
+        RuleCheckResult result2 = warning("Rule3").combine(error("Rule4"));
+
+        RuleCheckResult combined = result1.combine(result2);
+
+        Assertions.assertEquals(2, combined.getErrors().size());
+        Assertions.assertEquals("Rule1", combined.getErrors().get(0).getRuleName());
+        Assertions.assertEquals("Rule4", combined.getErrors().get(1).getRuleName());
+        Assertions.assertEquals(1, combined.getWarnings().size());
+        Assertions.assertEquals(1, combined.getPasseds().size());
+        Assertions.assertEquals(1, result1.getErrors().size());
+        Assertions.assertEquals(1, result2.getErrors().size());
+    }
+
+    @Test
+    public void testCombineIsSnapshot() {
+        RuleCheckResult result1 = error("Rule1");
+        result1.getErrors();
+        RuleCheckResult combined = result1.combine(null);
+
+        result1.addError(new RuleCheckResultDetail("Rule2", "错误"));
+        result1.getErrors().add(new RuleCheckResultDetail("Rule3", "错误"));
+
+        Assertions.assertEquals(3, result1.getErrors().size());
+        Assertions.assertEquals(1, combined.getErrors().size());
+    }
+
+    @Test
+    public void testCombineMany() {
+        RuleCheckResult combined = new RuleCheckResult();
+        for (int i = 0; i < 100000; i++) {
+            combined = combined.combine(i % 2 == 0 ? passed("Rule" + i) : error("Rule" + i));
+        }
+
+        ArrayList<RuleCheckResultDetail> errors = combined.getErrors();
+        Assertions.assertEquals(50000, errors.size());
+        Assertions.assertEquals(50000, combined.getPasseds().size());
+        for (int i = 0; i < errors.size(); i++) {
+            Assertions.assertEquals("Rule" + (i * 2 + 1), errors.get(i).getRuleName());
+        }
+    }
+
+    @Test
+    public void testResolveWarnings() {
+        RuleCheckResult result = warning("Rule1").combine(warning("Rule2")).combine(warning("Rule3"));
+
+        result.resolveWarning("Rule2");
+        Assertions.assertEquals(2, result.getWarnings().size());
+        Assertions.assertEquals(1, result.getResolveds().size());
+        Assertions.assertEquals("Rule2", result.getResolveds().get(0).getRuleName());
+
+        ArrayList<RuleCheckResultDetail> warnings = result.getWarnings();
+        result.resolveAllWarnings();
+        Assertions.assertFalse(result.hasWarning());
+        Assertions.assertTrue(warnings.isEmpty());
+        Assertions.assertEquals(3, result.getResolveds().size());
+
+        RuleCheckResult resolved = new RuleCheckResult();
+        resolved.addWarnings(new RuleCheckResultDetail("Rule2", "警告"), new RuleCheckResultDetail("Rule1", "警告"), new RuleCheckResultDetail("Rule3", "警告"));
+        resolved.resolveAllWarnings();
+        AssertUtils.assertResultEquals(resolved, result);
+    }
+
+    @Test
+    public void testReadOnly() {
+        RuleCheckResult result = RuleCheckResult.readOnlyPassed(new RuleCheckResultDetail("Rule1", null));
+
+        Assertions.assertTrue(result.isReadOnly());
+        Assertions.assertFalse(result.hasError());
+        result.getPasseds().clear();
+        Assertions.assertEquals(1, result.getPasseds().size());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> result.addError(new RuleCheckResultDetail("Rule2", "错误")));
+
+        RuleCheckResult combined = result.combine(error("Rule2"));
+        Assertions.assertFalse(combined.isReadOnly());
+        Assertions.assertEquals(1, combined.getPasseds().size());
+        Assertions.assertEquals(1, combined.getErrors().size());
+        combined.addError(new RuleCheckResultDetail("Rule3", "错误"));
+    }
+
+    @Test
+    public void testLookupByRuleName() {
+        RuleCheckResult result = new RuleCheckResult();
+        for (int i = 0; i < 100; i++) {
+            result = result.combine(error("Rule" + i)).combine(warning("Warning" + i));
+        }
+        result = result.combine(error(RuleTest.MockRule.class.getSimpleName()));
+
+        Assertions.assertTrue(result.hasError("rule42"));
+        Assertions.assertTrue(result.hasError("RULE99"));
+        Assertions.assertFalse(result.hasError("Rule100"));
+        Assertions.assertFalse(result.hasError("Warning1"));
+        Assertions.assertEquals("Rule7", result.getError("rule7").getRuleName());
+        Assertions.assertTrue(result.hasError(RuleTest.MockRule.class));
+        Assertions.assertNotNull(result.getError(RuleTest.MockRule.class));
+        Assertions.assertFalse(result.hasWarning(RuleTest.MockRule.class));
+
+        result.getErrors().add(new RuleCheckResultDetail("Added", "错误"));
+        Assertions.assertTrue(result.hasError("added"));
+        result.addError(new RuleCheckResultDetail("Added2", "错误"));
+        Assertions.assertTrue(result.hasError("added2"));
+    }
+
+    @Test
+    public void testLookupAfterModification() {
+        RuleCheckResult result = error("Rule1").combine(error("Rule2")).combine(warning("Warning1"));
+        Assertions.assertTrue(result.hasError("Rule1"));
+
+        // 长度不变的修改同样使索引失效
+        result.getErrors().set(0, new RuleCheckResultDetail("Replaced", "错误"));
+        Assertions.assertFalse(result.hasError("Rule1"));
+        Assertions.assertTrue(result.hasError("Replaced"));
+
+        List<RuleCheckResultDetail> subList = result.getErrors().subList(1, 2);
+        subList.set(0, new RuleCheckResultDetail("SubListReplaced", "错误"));
+        Assertions.assertFalse(result.hasError("Rule2"));
+        Assertions.assertTrue(result.hasError("SubListReplaced"));
+        subList.add(new RuleCheckResultDetail("SubListAdded", "错误"));
+        Assertions.assertTrue(result.hasError("SubListAdded"));
+        subList.subList(0, 1).set(0, new RuleCheckResultDetail("NestedReplaced", "错误"));
+        Assertions.assertFalse(result.hasError("SubListReplaced"));
+        Assertions.assertTrue(result.hasError("NestedReplaced"));
+        Assertions.assertEquals(3, result.getErrors().size());
+
+        result.resolveWarning("Warning1");
+        Assertions.assertFalse(result.hasWarning());
+        Assertions.assertEquals(1, result.getResolveds().size());
+    }
+
+    @Test
+    public void testResolveByRuleName() {
+        RuleCheckResult result = new RuleCheckResult();
+        for (int i = 0; i < 100; i++) {
+            result = result.combine(warning("Warning" + i));
+        }
+        result = result.combine(warning("Warning5"));
+
+        for (int i = 0; i < 50; i++) {
+            result.resolveWarning("warning" + i);
+        }
+        Assertions.assertEquals(50, result.getResolveds().size());
+        Assertions.assertFalse(result.hasWarning("Warning0"));
+        Assertions.assertTrue(result.hasWarning("Warning5"));
+        Assertions.assertTrue(result.hasWarning("Warning50"));
+
+        ArrayList<RuleCheckResultDetail> warnings = result.getWarnings();
+        Assertions.assertEquals(51, warnings.size());
+        Assertions.assertEquals("Warning50", warnings.get(0).getRuleName());
+        Assertions.assertEquals("Warning5", warnings.get(50).getRuleName());
+
+        result.resolveWarning("Warning5");
+        Assertions.assertFalse(result.hasWarning("Warning5"));
+        Assertions.assertEquals(50, result.getWarnings().size());
+        Assertions.assertEquals(51, result.getResolveds().size());
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RuleContextTest {
+
+    private static final AtomicInteger NORMALIZATIONS = new AtomicInteger();
+
+    /**
+     * 耗时的事实：标准化后的目标
+     */
+    private static final RuleContext.Key<String, String> NORMALIZED = RuleContext.key("normalized", target -> {
+        NORMALIZATIONS.incrementAndGet();
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return target.trim().toUpperCase();
+    });
+
+    public static class NormalizedRule extends Rule<String> {
+        private final String expected;
+
+        public NormalizedRule(String expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public RuleCheckResult check(String target) {
+            return this.expected.equals(this.fact(NORMALIZED, target)) ? this.pass() : this.error("不匹配");
+        }
+    }
+
+    @Test
+    public void testFactComputedOncePerRun() {
+        SerialRuleSet<String> ruleSet = Rule.serial(
+                new NormalizedRule("ABC"),
+                Rule.parallel(new NormalizedRule("ABC"), new NormalizedRule("ABC"), new NormalizedRule("ABC")),
+                new NormalizedRule("ABC")
+        );
+
+        for (RuleEngine engine : new RuleEngine[]{new RuleEngine(), RuleEngine.inline()}) {
+            engine.setContextEnabled(true);
+
+            int before = NORMALIZATIONS.get();
+            Assertions.assertFalse(engine.run(ruleSet, " abc ").hasError());
+            Assertions.assertEquals(1, NORMALIZATIONS.get() - before);
+
+            before = NORMALIZATIONS.get();
+            Assertions.assertFalse(engine.compile(ruleSet).check(" abc ").hasError());
+            // 每次执行各有独立的上下文
+            Assertions.assertTrue(engine.run(ruleSet, "x").hasError());
+            Assertions.assertEquals(2, NORMALIZATIONS.get() - before);
+        }
+
+        // 未开启上下文，或直接调用check()时，每次都重新计算
+        int before = NORMALIZATIONS.get();
+        new RuleEngine().run(ruleSet, " abc ");
+        Assertions.assertEquals(5, NORMALIZATIONS.get() - before);
+        Assertions.assertNull(RuleContext.current());
+    }
+
+    @Test
+    public void testContextWithDeduplicate() {
+        NormalizedRule shared = new NormalizedRule("ABC");
+        ParallelRuleSet<String> ruleSet = Rule.parallel(shared, Rule.serial(shared, new NormalizedRule("ABC")));
+        RuleEngine engine = new RuleEngine();
+        engine.setContextEnabled(true);
+        engine.setDeduplicate(true);
+
+        int before = NORMALIZATIONS.get();
+        RuleCheckResult result = engine.run(ruleSet, "abc");
+
+        Assertions.assertFalse(result.hasError());
+        Assertions.assertEquals(1, NORMALIZATIONS.get() - before);
+    }
+
+    @Test
+    public void testFailedFactIsNotMemoized() {
+        AtomicInteger attempts = new AtomicInteger();
+        RuleContext.Key<String, Integer> parsed = RuleContext.key("parsed", target -> {
+            attempts.incrementAndGet();
+            return Integer.parseInt(target);
+        });
+        RuleContext context = new RuleContext();
+
+        Assertions.assertThrows(NumberFormatException.class, () -> context.get(parsed, "x"));
+        Assertions.assertNull(context.getIfPresent(parsed));
+        Assertions.assertEquals(42, context.get(parsed, "42"));
+        Assertions.assertEquals(42, context.getIfPresent(parsed));
+        Assertions.assertEquals(2, attempts.get());
+    }
+}
@@ -0,0 +1,464 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import lombok.NonNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RuleEngineTest {
+    public static class ThreadRecordRule extends Rule<String> {
+
+        private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        private final String passStr;
+
+        public ThreadRecordRule(String passStr) {
+            this.passStr = passStr;
+        }
+
+        @Override
+        public RuleCheckResult check(@NonNull String target) {
+            this.threads.add(Thread.currentThread());
+            if (target.equalsIgnoreCase(this.passStr)) {
+                return this.pass("通过");
+            } else {
+                return this.error("不通过");
+            }
+        }
+    }
+
+    @Test
+    public void testInlineSerial() {
+        ThreadRecordRule rule1 = new ThreadRecordRule("A");
+        ThreadRecordRule rule2 = new ThreadRecordRule("A");
+        ThreadRecordRule rule3 = new ThreadRecordRule("B");
+        SerialRuleSet<String> ruleSet = Rule.serial(rule1, Rule.serial(rule2, rule3));
+
+        RuleCheckResult result = RuleEngine.inline().run(ruleSet, "A");
+
+        Assertions.assertEquals(2, result.getPasseds().size());
+        Assertions.assertEquals(1, result.getErrors().size());
+        for (ThreadRecordRule rule : new ThreadRecordRule[]{rule1, rule2, rule3}) {
+            Assertions.assertEquals(1, rule.threads.size());
+            Assertions.assertTrue(rule.threads.contains(Thread.currentThread()));
+        }
+    }
+
+    @Test
+    public void testInlineParallel() {
+        ThreadRecordRule rule1 = new ThreadRecordRule("A");
+        ThreadRecordRule rule2 = new ThreadRecordRule("A");
+        ThreadRecordRule rule3 = new ThreadRecordRule("A");
+        SerialRuleSet<String> ruleSet = Rule.serial(rule1, Rule.parallel(rule2, rule3));
+
+        RuleCheckResult result = RuleEngine.inline().run(ruleSet, "A");
+
+        Assertions.assertFalse(result.hasError());
+        Assertions.assertEquals(3, result.getPasseds().size());
+        Assertions.assertTrue(rule1.threads.contains(Thread.currentThread()));
+        // 并行子规则提交到线程池，尚未被取走的由调用线程执行，每个子规则只执行一次
+        Assertions.assertEquals(1, rule2.threads.size());
+        Assertions.assertEquals(1, rule3.threads.size());
+    }
+
+    @Test
+    public void testInlineNestedParallelOnBoundedPool() {
+        ExecutorService pool = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "bounded-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Rule<String>> subRuleSets = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                subRuleSets.add(Rule.parallel(new ThreadRecordRule("A"), new ThreadRecordRule("A")));
+            }
+            @SuppressWarnings("unchecked")
+            ParallelRuleSet<String> ruleSet = Rule.parallel(subRuleSets.toArray(new Rule[0]));
+            RuleEngine engine = new RuleEngine(pool, RuleEngine.ExecutionMode.INLINE);
+
+            // 线程池的两个线程都在执行嵌套的并行规则集时，不会因等待排在后面的子规则而死锁
+            RuleCheckResult result = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> engine.run(ruleSet, "A"));
+
+            Assertions.assertFalse(result.hasError());
+            Assertions.assertEquals(8, result.getPasseds().size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInlineOr() {
+        ThreadRecordRule rule1 = new ThreadRecordRule("A");
+        ThreadRecordRule rule2 = new ThreadRecordRule("B");
+        ThreadRecordRule rule3 = new ThreadRecordRule("B");
+        SerialRuleSet<String> ruleSet = Rule.serial(RuleSet.Operator.OR, rule1, rule2, rule3);
+
+        RuleCheckResult result = RuleEngine.inline().run(ruleSet, "B");
+
+        Assertions.assertFalse(result.hasError());
+        Assertions.assertEquals(1, result.getPasseds().size());
+        Assertions.assertTrue(rule3.threads.isEmpty());
+    }
+
+    @Test
+    public void testNestedRuleSetsOnBoundedPool() {
+        ExecutorService pool = Executors.newSingleThreadExecutor(r -> new Thread(r, "bounded-pool"));
+        try {
+            ThreadRecordRule rule1 = new ThreadRecordRule("A");
+            ThreadRecordRule rule2 = new ThreadRecordRule("A");
+            ThreadRecordRule rule3 = new ThreadRecordRule("A");
+            ThreadRecordRule rule4 = new ThreadRecordRule("A");
+            SerialRuleSet<String> ruleSet = Rule.serial(
+                    Rule.parallel(
+                            Rule.serial(rule1, Rule.serial(rule2)),
+                            Rule.parallel(rule3)),
+                    Rule.serial(rule4));
+
+            RuleCheckResult result = new RuleEngine(pool).runAsync(ruleSet, "A").get(5, TimeUnit.SECONDS);
+
+            Assertions.assertEquals(4, result.getPasseds().size());
+            for (ThreadRecordRule rule : new ThreadRecordRule[]{rule1, rule2, rule3, rule4}) {
+                Assertions.assertEquals(1, rule.threads.size());
+                Assertions.assertEquals("bounded-pool", rule.threads.iterator().next().getName());
+            }
+        } catch (Exception e) {
+            Assertions.fail(e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRunBatch() {
+        SerialRuleSet<String> ruleSet = Rule.serial(
+                new ThreadRecordRule("A").or(new ThreadRecordRule("B")),
+                Rule.parallel(RuleSet.Operator.OR, new ThreadRecordRule("A"), new ThreadRecordRule("B")));
+        List<String> targets = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            targets.add(i % 3 == 0 ? "A" : i % 3 == 1 ? "B" : "C");
+        }
+
+        RuleEngine engine = new RuleEngine();
+        List<RuleCheckResult> results = engine.runBatch(ruleSet, targets);
+
+        Assertions.assertEquals(targets.size(), results.size());
+        for (int i = 0; i < targets.size(); i++) {
+            Assertions.assertEquals(i % 3 == 2, results.get(i).hasError());
+            Assertions.assertEquals(engine.run(ruleSet, targets.get(i)).getPasseds().size(), results.get(i).getPasseds().size());
+        }
+
+        RuleCheckResult[] arrayResults = engine.runBatch(ruleSet, new String[]{"C", "A"});
+        Assertions.assertTrue(arrayResults[0].hasError());
+        Assertions.assertFalse(arrayResults[1].hasError());
+
+        Set<String> targetSet = new HashSet<>(targets);
+        Assertions.assertEquals(3, engine.runBatch(ruleSet, targetSet).size());
+    }
+
+    @Test
+    public void testStream() {
+        AtomicInteger pulled = new AtomicInteger();
+        Iterator<String> source = new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return pulled.get() < 1000;
+            }
+
+            @Override
+            public String next() {
+                return pulled.getAndIncrement() % 2 == 0 ? "A" : "B";
+            }
+        };
+        ThreadRecordRule rule = new ThreadRecordRule("A");
+
+        int[] consumed = {0};
+        new RuleEngine().stream(rule, source, 8).forEach(r -> {
+            Assertions.assertTrue(pulled.get() - consumed[0] <= 8);
+            Assertions.assertEquals(r.getTarget().equals("B"), r.getResult().hasError());
+            consumed[0]++;
+        });
+        Assertions.assertEquals(1000, consumed[0]);
+    }
+
+    @Test
+    public void testVirtualThreads() {
+        if (!RuleEngine.isVirtualThreadSupported()) {
+            Assertions.assertThrows(UnsupportedOperationException.class, RuleEngine::virtualThreads);
+            return;
+        }
+        ThreadRecordRule rule = new ThreadRecordRule("A");
+        RuleCheckResult result = RuleEngine.virtualThreads().run(Rule.parallel(rule, new ThreadRecordRule("A")), "A");
+        Assertions.assertFalse(result.hasError());
+        Assertions.assertFalse(rule.threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void testSharedPass() {
+        class PassRule extends Rule<String> {
+            @Override
+            public RuleCheckResult check(@NonNull String target) {
+                return this.pass();
+            }
+        }
+
+        PassRule rule = new PassRule();
+        PassRule other = new PassRule();
+        rule.setSharedPassEnabled(true);
+        RuleCheckResult result1 = rule.check("A");
+        RuleCheckResult result2 = rule.check("B");
+        Assertions.assertSame(result1, result2);
+        Assertions.assertTrue(result1.isReadOnly());
+        Assertions.assertEquals(rule.getName(), result1.getPasseds().get(0).getRuleName());
+        // 只影响开启的规则实例
+        Assertions.assertFalse(other.check("A").isReadOnly());
+
+        rule.setSharedPassEnabled(false);
+        Assertions.assertFalse(rule.check("A").isReadOnly());
+    }
+
+    @Test
+    public void testNotRecordPasseds() {
+        SerialRuleSet<String> ruleSet = Rule.serial(new ThreadRecordRule("A"), Rule.parallel(new ThreadRecordRule("A"), new ThreadRecordRule("B")));
+        RuleEngine engine = new RuleEngine();
+        engine.setRecordPasseds(false);
+
+        RuleCheckResult result = engine.run(ruleSet, "A");
+        Assertions.assertTrue(result.getPasseds().isEmpty());
+        Assertions.assertEquals(1, result.getErrors().size());
+
+        RuleCheckResult compiledResult = engine.compile(ruleSet).check("A");
+        Assertions.assertTrue(compiledResult.getPasseds().isEmpty());
+        Assertions.assertEquals(1, compiledResult.getErrors().size());
+    }
+
+    @Test
+    public void testListener() {
+        ThreadRecordRule rule1 = new ThreadRecordRule("A");
+        ThreadRecordRule rule2 = new ThreadRecordRule("A");
+        ThreadRecordRule rule3 = new ThreadRecordRule("B");
+        rule3.setName("rule3");
+        SerialRuleSet<String> ruleSet = Rule.serial(rule1, Rule.parallel(rule2, rule3));
+
+        for (RuleEngine engine : new RuleEngine[]{new RuleEngine(), RuleEngine.inline()}) {
+            List<String> starts = new ArrayList<>();
+            ConcurrentHashMap<String, RuleOutcome> finishes = new ConcurrentHashMap<>();
+            AtomicInteger finishCount = new AtomicInteger();
+            RuleListener listener = new RuleListener() {
+                @Override
+                public void onStart(Rule<?> rule) {
+                    synchronized (starts) {
+                        starts.add(rule.getName());
+                    }
+                }
+
+                @Override
+                public void onFinish(Rule<?> rule, long durationNanos, RuleOutcome outcome, Throwable error) {
+                    Assertions.assertTrue(durationNanos >= 0);
+                    finishes.put(rule.getName(), outcome);
+                    finishCount.incrementAndGet();
+                }
+            };
+            engine.addListener(listener);
+
+            engine.run(ruleSet, "A");
+            Assertions.assertEquals(5, starts.size());
+            Assertions.assertEquals(5, finishCount.get());
+            Assertions.assertEquals(RuleOutcome.ERROR, finishes.get("rule3"));
+            Assertions.assertEquals(RuleOutcome.ERROR, finishes.get(ruleSet.getName()));
+
+            engine.compile(ruleSet).check("B");
+            Assertions.assertEquals(7, finishCount.get());
+            Assertions.assertEquals(RuleOutcome.ERROR, finishes.get(ruleSet.getName()));
+
+            Assertions.assertTrue(engine.removeListener(listener));
+            engine.run(ruleSet, "A");
+            Assertions.assertEquals(7, finishCount.get());
+        }
+    }
+
+    @Test
+    public void testListenerException() {
+        RuleEngine engine = new RuleEngine();
+        engine.addListener(new RuleListener() {
+            @Override
+            public void onFinish(Rule<?> rule, long durationNanos, RuleOutcome outcome, Throwable error) {
+                throw new IllegalStateException("listener");
+            }
+        });
+        RuleCheckResult result = engine.run(Rule.serial(new ThreadRecordRule("A")), "A");
+        Assertions.assertFalse(result.hasError());
+    }
+
+    public static class KeyedCountingRule extends Rule<String> {
+        private static final AtomicInteger TOTAL = new AtomicInteger();
+        private final AtomicInteger count = new AtomicInteger();
+        private final String key;
+
+        public KeyedCountingRule(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public Object getEquivalenceKey() {
+            return this.key;
+        }
+
+        @Override
+        public RuleCheckResult check(String target) {
+            this.count.incrementAndGet();
+            TOTAL.incrementAndGet();
+            return this.pass("通过");
+        }
+    }
+
+    @Test
+    public void testDeduplicate() {
+        SerialRuleSetTest.CountingRule rule1 = new SerialRuleSetTest.CountingRule("rule1", 0, true);
+        SerialRuleSetTest.CountingRule rule2 = new SerialRuleSetTest.CountingRule("rule2", 0, true);
+        SerialRuleSet<String> shared = Rule.serial(rule1, rule2);
+        SerialRuleSet<String> ruleSet = Rule.serial(shared, Rule.parallel(shared, rule1), Rule.parallel(rule2, shared));
+
+        RuleEngine[] engines = new RuleEngine[]{new RuleEngine(), RuleEngine.inline()};
+        for (RuleEngine engine : engines) {
+            engine.setDeduplicate(true);
+            RuleCheckResult result = engine.run(ruleSet, "A");
+            // 结果在规则出现的每个位置复用
+            Assertions.assertEquals(8, result.getPasseds().size());
+            engine.compile(ruleSet).check("A");
+        }
+        Assertions.assertEquals(4, rule1.count.get());
+        Assertions.assertEquals(4, rule2.count.get());
+
+        RuleEngine engine = new RuleEngine();
+        engine.run(ruleSet, "A");
+        Assertions.assertEquals(8, rule1.count.get());
+    }
+
+    @Test
+    public void testDeduplicateEquivalenceKey() {
+        KeyedCountingRule rule1 = new KeyedCountingRule("k");
+        KeyedCountingRule rule2 = new KeyedCountingRule("k");
+        KeyedCountingRule rule3 = new KeyedCountingRule("other");
+        ParallelRuleSet<String> ruleSet = Rule.parallel(rule1, rule2, rule3);
+        RuleEngine engine = new RuleEngine();
+        engine.setDeduplicate(true);
+
+        int before = KeyedCountingRule.TOTAL.get();
+        RuleCheckResult result = engine.run(ruleSet, "A");
+
+        Assertions.assertEquals(2, KeyedCountingRule.TOTAL.get() - before);
+        Assertions.assertEquals(1, rule3.count.get());
+        Assertions.assertEquals(3, result.getPasseds().size());
+    }
+
+    public static class InterruptAwareRule extends Rule<String> {
+        final AtomicInteger interrupted = new AtomicInteger();
+
+        @Override
+        public RuleCheckResult check(String target) {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                this.interrupted.incrementAndGet();
+                Thread.currentThread().interrupt();
+            }
+            return this.pass();
+        }
+    }
+
+    @Rule.Descriptor(value = "声明超时的规则", timeoutMillis = 50)
+    public static class DeclaredTimeoutRule extends ExecutionTraceTest.SleepRule {
+        public DeclaredTimeoutRule() {
+            super("declared", 5000, true);
+        }
+    }
+
+    @Test
+    public void testDeadline() throws InterruptedException {
+        for (RuleEngine engine : new RuleEngine[]{new RuleEngine(), RuleEngine.inline()}) {
+            InterruptAwareRule hung = new InterruptAwareRule();
+            SerialRuleSet<String> ruleSet = Rule.serial(new ExecutionTraceTest.SleepRule("fast", 1, true), hung);
+
+            long start = System.nanoTime();
+            RuleCheckResult result = engine.run(ruleSet, "A", Duration.ofMillis(50));
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            Assertions.assertTrue(elapsed < 2000);
+            Assertions.assertTrue(result.hasError());
+            Assertions.assertEquals("规则执行超时", result.getErrors().get(0).getMessage());
+            Duration payload = result.getErrors().get(0).getPayload();
+            Assertions.assertEquals(Duration.ofMillis(50), payload);
+            // 超时后执行规则的线程被中断
+            for (int i = 0; i < 100 && hung.interrupted.get() == 0; i++) {
+                Thread.sleep(10);
+            }
+            Assertions.assertEquals(1, hung.interrupted.get());
+
+            RuleCheckResult passed = engine.runAsync(ruleSet.getSubRules().get(0), "A", Duration.ofSeconds(5)).join();
+            Assertions.assertFalse(passed.hasError());
+        }
+    }
+
+    @Test
+    public void testDeadlineCancelsBeforeReturning() {
+        RuleEngine engine = new RuleEngine();
+        for (int i = 0; i < 20; i++) {
+            AsyncRuleTest.RemoteRule serialHung = new AsyncRuleTest.RemoteRule("serialHung", 5000, true);
+            AsyncRuleTest.RemoteRule parallelHung = new AsyncRuleTest.RemoteRule("parallelHung", 5000, true);
+            SerialRuleSet<String> ruleSet = Rule.serial(
+                    new ExecutionTraceTest.SleepRule("fast", 1, true),
+                    Rule.parallel(parallelHung, new RuleEngineTest.KeyedCountingRule("local")),
+                    serialHung);
+
+            RuleCheckResult result = engine.run(ruleSet, "A", Duration.ofMillis(50));
+
+            Assertions.assertEquals("规则执行超时", result.getErrors().get(0).getMessage());
+            // 调用方拿到超时结果时，剩余的工作已被取消
+            Assertions.assertTrue(parallelHung.lastFuture.isCancelled());
+            Assertions.assertEquals(0, serialHung.count.get());
+        }
+    }
+
+    @Test
+    public void testRuleTimeout() {
+        ExecutionTraceTest.SleepRule slow = new ExecutionTraceTest.SleepRule("slow", 5000, true);
+        ExecutionTraceTest.SleepRule fast = new ExecutionTraceTest.SleepRule("fast", 1, true);
+        ParallelRuleSet<String> ruleSet = Rule.parallel(slow, fast);
+
+        for (RuleEngine engine : new RuleEngine[]{new RuleEngine(), RuleEngine.inline()}) {
+            engine.setRuleTimeout(slow, Duration.ofMillis(50));
+            engine.setTimeoutPolicy(RuleEngine.TimeoutPolicy.WARNING);
+
+            RuleCheckResult result = engine.run(ruleSet, "A");
+            Assertions.assertFalse(result.hasError());
+            Assertions.assertTrue(result.hasWarning("slow"));
+            Assertions.assertEquals(1, result.getPasseds().size());
+
+            RuleCheckResult compiledResult = engine.compile(ruleSet).check("A");
+            Assertions.assertTrue(compiledResult.hasWarning("slow"));
+        }
+
+        RuleEngine engine = new RuleEngine();
+        DeclaredTimeoutRule declared = new DeclaredTimeoutRule();
+        RuleCheckResult result = engine.run(Rule.serial(declared, fast), "A");
+        Assertions.assertTrue(result.hasError("declared"));
+
+        // 引擎中的设置覆盖注解中声明的超时
+        engine.setRuleTimeout(declared, Duration.ofMillis(30));
+        engine.setTimeoutPolicy(RuleEngine.TimeoutPolicy.WARNING);
+        result = engine.run(declared, "A");
+        Duration payload = result.getWarnings().get(0).getPayload();
+        Assertions.assertEquals(Duration.ofMillis(30), payload);
+    }
+}
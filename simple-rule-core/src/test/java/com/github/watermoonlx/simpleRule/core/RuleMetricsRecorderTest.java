@@ -0,0 +1,61 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+public class RuleMetricsRecorderTest {
+
+    @Test
+    public void testRecord() {
+        RuleEngineTest.ThreadRecordRule rule = new RuleEngineTest.ThreadRecordRule("A");
+        RuleMetricsRecorder recorder = new RuleMetricsRecorder();
+        RuleEngine engine = new RuleEngine();
+        engine.addListener(recorder);
+
+        for (int i = 0; i < 10; i++) {
+            engine.run(rule, i < 7 ? "A" : "B");
+        }
+
+        RuleMetricsRecorder.RuleMetrics metrics = recorder.getMetrics(rule.getName());
+        Assertions.assertEquals(10, metrics.getCount());
+        Assertions.assertEquals(7, metrics.getCount(RuleOutcome.PASSED));
+        Assertions.assertEquals(3, metrics.getCount(RuleOutcome.ERROR));
+        Assertions.assertEquals(0, metrics.getCount(RuleOutcome.EXCEPTION));
+        long bucketTotal = 0;
+        for (long count : metrics.getBucketCounts()) {
+            bucketTotal += count;
+        }
+        Assertions.assertEquals(10, bucketTotal);
+
+        recorder.reset();
+        Assertions.assertNull(recorder.getMetrics(rule.getName()));
+    }
+
+    @Test
+    public void testPercentile() {
+        RuleEngineTest.ThreadRecordRule rule = new RuleEngineTest.ThreadRecordRule("A");
+        RuleMetricsRecorder recorder = new RuleMetricsRecorder();
+        for (int i = 0; i < 98; i++) {
+            recorder.onFinish(rule, TimeUnit.MICROSECONDS.toNanos(3), RuleOutcome.PASSED, null);
+        }
+        recorder.onFinish(rule, TimeUnit.MILLISECONDS.toNanos(15), RuleOutcome.WARNING, null);
+        recorder.onFinish(rule, TimeUnit.SECONDS.toNanos(60), RuleOutcome.EXCEPTION, null);
+
+        RuleMetricsRecorder.RuleMetrics metrics = recorder.getMetrics(rule.getName());
+        Assertions.assertEquals(TimeUnit.MICROSECONDS.toNanos(5), metrics.getPercentileNanos(0.5));
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(20), metrics.getPercentileNanos(0.99));
+        Assertions.assertEquals(Long.MAX_VALUE, metrics.getPercentileNanos(1));
+        Assertions.assertEquals(1, metrics.getCount(RuleOutcome.WARNING));
+        Assertions.assertEquals(RuleMetricsRecorder.getBucketBoundsNanos().length + 1, metrics.getBucketCounts().length);
+    }
+
+    @Test
+    public void testOutcome() {
+        Assertions.assertEquals(RuleOutcome.CANCELLED, RuleOutcome.of(null, new CancellationException()));
+        Assertions.assertEquals(RuleOutcome.EXCEPTION, RuleOutcome.of(null, new IllegalStateException()));
+        Assertions.assertEquals(RuleOutcome.PASSED, RuleOutcome.of(new RuleCheckResult(), null));
+    }
+}
@@ -8,7 +8,9 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 
@@ -188,6 +190,61 @@ public class RuleTest {
         Assertions.assertEquals("这是一个测试类", nameAndDescRule.getDescription());
     }
 
+    @Rule.Descriptor(name = "缓存测试", value = "描述按类缓存")
+    public static class CachedDescRule extends MockRule {
+    }
+
+    public static class PlainDescRule extends CachedDescRule {
+    }
+
+    @Test
+    public void testDescriptorCache() {
+        // 有Descriptor注解的类使用注解中的名称和描述，没有注解的子类使用类名，注解不被继承
+        CachedDescRule first = new CachedDescRule();
+        Assertions.assertEquals("缓存测试", first.getName());
+        Assertions.assertEquals("描述按类缓存", first.getDescription());
+        PlainDescRule plain = new PlainDescRule();
+        Assertions.assertEquals("PlainDescRule", plain.getName());
+        Assertions.assertNull(plain.getDescription());
+
+        // 同一个类的实例共享缓存的描述信息，修改某个实例的名称不影响其他实例
+        CachedDescRule second = new CachedDescRule();
+        Assertions.assertSame(first.getName(), second.getName());
+        Assertions.assertSame(first.getDescription(), second.getDescription());
+        first.setName("改名");
+        first.setDescription("改描述");
+        Assertions.assertEquals("缓存测试", second.getName());
+        Assertions.assertEquals("描述按类缓存", new CachedDescRule().getDescription());
+        Assertions.assertEquals("PlainDescRule", new PlainDescRule().getName());
+    }
+
+    @Test
+    public void testDrawImageWithSharedGenerator() throws IOException {
+        MockRule rule1 = new MockRule("Rule 1", "测试规则1");
+        MockRule rule2 = new MockRule("Rule 2", "测试规则2");
+        rule2.setPassStr("Don't Pass");
+        SerialRuleSet<String> ruleSet = Rule.serial(rule1, rule2);
+
+        ByteArrayOutputStream before = new ByteArrayOutputStream();
+        ruleSet.drawImage(before);
+        Assertions.assertTrue(before.size() > 0);
+
+        // 带结果的流程图与不带结果的不同，且结果不会残留在共享的ImageGenerator中
+        ByteArrayOutputStream withResult = new ByteArrayOutputStream();
+        ruleSet.drawImageWithResult(ruleSet.check("pass"), withResult);
+        Assertions.assertFalse(Arrays.equals(before.toByteArray(), withResult.toByteArray()));
+
+        ByteArrayOutputStream after = new ByteArrayOutputStream();
+        ruleSet.drawImage(after);
+        Assertions.assertArrayEquals(before.toByteArray(), after.toByteArray());
+
+        // 不同规则的实例使用同一个ImageGenerator绘制
+        ByteArrayOutputStream other = new ByteArrayOutputStream();
+        new CachedDescRule().drawImage(other);
+        Assertions.assertTrue(other.size() > 0);
+        Assertions.assertFalse(Arrays.equals(before.toByteArray(), other.toByteArray()));
+    }
+
     @Test
 //    @Disabled("for demonstration purposes")
     public void testDrawImage() throws IOException {
@@ -2,8 +2,18 @@ package com.github.watermoonlx.simpleRule.core;
 
 import com.github.watermoonlx.simpleRule.utils.AssertUtils;
 import lombok.NonNull;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class SerialRuleSetTest {
     public static class MockRule extends Rule<String> {
 
@@ -118,4 +128,137 @@ public class SerialRuleSetTest {
 
         AssertUtils.assertResultEquals(result, expected);
     }
+
+    public static class CountingRule extends Rule<String> {
+        final AtomicInteger count = new AtomicInteger();
+        private final long millis;
+        private final boolean pass;
+
+        public CountingRule(String name, long millis, boolean pass) {
+            this.millis = millis;
+            this.pass = pass;
+            this.setName(name);
+        }
+
+        @Override
+        public RuleCheckResult check(String target) {
+            this.count.incrementAndGet();
+            if (this.millis > 0) {
+                try {
+                    Thread.sleep(this.millis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return this.pass ? this.pass("通过") : this.error("不通过");
+        }
+    }
+
+    @Test
+    public void testAdaptive() {
+        for (RuleEngine engine : new RuleEngine[]{new RuleEngine(), RuleEngine.inline()}) {
+            CountingRule expensive = new CountingRule("expensive", 2, true);
+            CountingRule cheap = new CountingRule("cheap", 0, false);
+            SerialRuleSet<String> ruleSet = Rule.serial(expensive, cheap);
+            ruleSet.setAdaptive(true);
+            ruleSet.setReorderInterval(5);
+
+            for (int i = 0; i < 20; i++) {
+                RuleCheckResult result = engine.run(ruleSet, "A");
+                Assertions.assertTrue(result.hasError("cheap"));
+            }
+
+            Assertions.assertEquals(5, expensive.count.get());
+            Assertions.assertEquals(20, cheap.count.get());
+            Assertions.assertEquals(Arrays.asList(cheap, expensive), ruleSet.getEffectiveOrder());
+            Assertions.assertEquals(Arrays.asList(expensive, cheap), ruleSet.getSubRules());
+        }
+    }
+
+    @Test
+    public void testAdaptiveCompiled() {
+        CountingRule expensive = new CountingRule("expensive", 2, true);
+        CountingRule cheap = new CountingRule("cheap", 0, false);
+        SerialRuleSet<String> ruleSet = Rule.serial(expensive, cheap);
+        ruleSet.setAdaptive(true);
+        ruleSet.setReorderInterval(5);
+
+        CompiledRule<String> compiled = new RuleEngine().compile(ruleSet);
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertTrue(compiled.check("A").hasError("cheap"));
+        }
+        Assertions.assertEquals(5, expensive.count.get());
+        // 执行计划的统计信息独立维护，原始规则集的执行顺序不受影响
+        Assertions.assertEquals(Arrays.asList(expensive, cheap), ruleSet.getEffectiveOrder());
+    }
+
+    @Test
+    public void testAdaptivePinned() {
+        CountingRule expensive = new CountingRule("expensive", 2, true);
+        CountingRule cheap = new CountingRule("cheap", 0, false);
+        SerialRuleSet<String> ruleSet = Rule.serial(RuleSet.Operator.AND);
+        ruleSet.registerPinned(expensive);
+        ruleSet.register(cheap);
+        ruleSet.setAdaptive(true);
+        ruleSet.setReorderInterval(5);
+
+        for (int i = 0; i < 20; i++) {
+            RuleEngine.inline().run(ruleSet, "A");
+        }
+
+        Assertions.assertTrue(ruleSet.isPinned(expensive));
+        Assertions.assertEquals(20, expensive.count.get());
+        Assertions.assertEquals(Arrays.asList(expensive, cheap), ruleSet.getEffectiveOrder());
+    }
+
+    /**
+     * 记录每个目标被检查次数的规则，耗时随机，使自适应顺序频繁变化
+     */
+    public static class PerTargetRule extends Rule<String> {
+        final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+        public PerTargetRule(String name) {
+            this.setName(name);
+        }
+
+        @Override
+        public RuleCheckResult check(String target) {
+            this.counts.computeIfAbsent(target, k -> new AtomicInteger()).incrementAndGet();
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(2));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return this.pass();
+        }
+    }
+
+    @Test
+    public void testAdaptiveConcurrentReorder() {
+        List<PerTargetRule> rules = new ArrayList<>();
+        SerialRuleSet<String> ruleSet = Rule.serial();
+        for (int i = 0; i < 6; i++) {
+            PerTargetRule rule = new PerTargetRule("rule" + i);
+            rules.add(rule);
+            ruleSet.register(rule);
+        }
+        ruleSet.setAdaptive(true);
+        ruleSet.setReorderInterval(1);
+
+        RuleEngine engine = new RuleEngine();
+        List<CompletableFuture<RuleCheckResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(engine.runAsync(ruleSet, "t" + i));
+        }
+        for (CompletableFuture<RuleCheckResult> future : futures) {
+            Assertions.assertEquals(6, future.join().getPasseds().size());
+        }
+        // 执行过程中的重新排序不会导致同一次执行中某个子规则被执行两次、另一个被跳过
+        for (PerTargetRule rule : rules) {
+            Assertions.assertEquals(200, rule.counts.size());
+            for (AtomicInteger count : rule.counts.values()) {
+                Assertions.assertEquals(1, count.get());
+            }
+        }
+    }
 }
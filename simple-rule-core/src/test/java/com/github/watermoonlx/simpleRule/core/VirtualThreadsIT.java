@@ -0,0 +1,42 @@
+package com.github.watermoonlx.simpleRule.core;
+
+import lombok.NonNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于打包后的Multi-Release JAR执行，只在Java 21及以上版本的mvn verify中运行
+ */
+public class VirtualThreadsIT {
+
+    @Test
+    public void testLoadedFromMultiReleaseJar() {
+        String location = VirtualThreads.class.getProtectionDomain().getCodeSource().getLocation().getPath();
+        Assertions.assertTrue(location.endsWith(".jar"), location);
+        Assertions.assertTrue(RuleEngine.isVirtualThreadSupported());
+    }
+
+    @Test
+    public void testRulesRunOnVirtualThreads() throws Exception {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        class VirtualRule extends Rule<String> {
+            @Override
+            public RuleCheckResult check(@NonNull String target) {
+                threads.add(Thread.currentThread());
+                return this.pass();
+            }
+        }
+
+        RuleCheckResult result = RuleEngine.virtualThreads().run(Rule.parallel(new VirtualRule(), new VirtualRule()), "A");
+
+        Assertions.assertFalse(result.hasError());
+        Assertions.assertFalse(threads.isEmpty());
+        for (Thread thread : threads) {
+            // 测试代码按Java 8编译，通过反射调用Java 21的Thread.isVirtual()
+            Assertions.assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread));
+        }
+    }
+}